@@ -1,6 +1,12 @@
 package com.sample.myapp.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Sample.
@@ -13,12 +19,66 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final PostContent postContent = new PostContent();
+
+    private final ReadReplicas readReplicas = new ReadReplicas();
+
+    private final PostBulk postBulk = new PostBulk();
+
+    private final SearchIndexer searchIndexer = new SearchIndexer();
+
+    private final SearchReindex searchReindex = new SearchReindex();
+
+    private final LocalSearch localSearch = new LocalSearch();
+
+    private final SearchCache searchCache = new SearchCache();
+
+    private final Cache cache = new Cache();
+
+    private final UserLookupFilter userLookupFilter = new UserLookupFilter();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public PostContent getPostContent() {
+        return postContent;
+    }
+
+    public ReadReplicas getReadReplicas() {
+        return readReplicas;
+    }
+
+    public PostBulk getPostBulk() {
+        return postBulk;
+    }
+
+    public SearchIndexer getSearchIndexer() {
+        return searchIndexer;
+    }
+
+    public SearchReindex getSearchReindex() {
+        return searchReindex;
+    }
+
+    public LocalSearch getLocalSearch() {
+        return localSearch;
+    }
+
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public UserLookupFilter getUserLookupFilter() {
+        return userLookupFilter;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +93,443 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class PostContent {
+
+        private Boolean compress = false;
+
+        private Integer compressMinLength = 1024;
+
+        private Boolean migrateOnStartup = false;
+
+        private Integer migrationChunkSize = 500;
+
+        public Boolean getCompress() {
+            return compress;
+        }
+
+        public void setCompress(Boolean compress) {
+            this.compress = compress;
+        }
+
+        public Integer getCompressMinLength() {
+            return compressMinLength;
+        }
+
+        public void setCompressMinLength(Integer compressMinLength) {
+            this.compressMinLength = compressMinLength;
+        }
+
+        public Boolean getMigrateOnStartup() {
+            return migrateOnStartup;
+        }
+
+        public void setMigrateOnStartup(Boolean migrateOnStartup) {
+            this.migrateOnStartup = migrateOnStartup;
+        }
+
+        public Integer getMigrationChunkSize() {
+            return migrationChunkSize;
+        }
+
+        public void setMigrationChunkSize(Integer migrationChunkSize) {
+            this.migrationChunkSize = migrationChunkSize;
+        }
+    }
+
+    public static class ReadReplicas {
+
+        private Boolean enabled = false;
+
+        private List<Instance> instances = new ArrayList<>();
+
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        private Duration checkInterval = Duration.ofSeconds(5);
+
+        private String lagQuery =
+            "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 " +
+            "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<Instance> getInstances() {
+            return instances;
+        }
+
+        public void setInstances(List<Instance> instances) {
+            this.instances = instances;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public Duration getCheckInterval() {
+            return checkInterval;
+        }
+
+        public void setCheckInterval(Duration checkInterval) {
+            this.checkInterval = checkInterval;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+
+        public static class Instance {
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+        }
+    }
+
+    public static class PostBulk {
+
+        private Integer chunkSize = 500;
+
+        public Integer getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(Integer chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class SearchIndexer {
+
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        private Integer batchSize = 500;
+
+        private Duration pauseLease = Duration.ofMinutes(5);
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getPauseLease() {
+            return pauseLease;
+        }
+
+        public void setPauseLease(Duration pauseLease) {
+            this.pauseLease = pauseLease;
+        }
+    }
+
+    public static class SearchReindex {
+
+        private Integer parallelism = 4;
+
+        private Integer sliceSize = 1000;
+
+        public Integer getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(Integer parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public Integer getSliceSize() {
+            return sliceSize;
+        }
+
+        public void setSliceSize(Integer sliceSize) {
+            this.sliceSize = sliceSize;
+        }
+    }
+
+    public static class LocalSearch {
+
+        private String directory = "lucene";
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+    }
+
+    public static class SearchCache {
+
+        private Integer maxSize = 1000;
+
+        private DataSize maxWeight = DataSize.ofMegabytes(16);
+
+        private Duration timeToLive = Duration.ofMinutes(1);
+
+        private Duration refreshInterval = Duration.ofSeconds(1);
+
+        public Integer getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(Integer maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public DataSize getMaxWeight() {
+            return maxWeight;
+        }
+
+        public void setMaxWeight(DataSize maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    public static class Cache {
+
+        private Map<String, Region> regions = new LinkedHashMap<>();
+
+        private final Invalidation invalidation = new Invalidation();
+
+        private final Warmup warmup = new Warmup();
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public void setRegions(Map<String, Region> regions) {
+            this.regions = regions;
+        }
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+
+        public Warmup getWarmup() {
+            return warmup;
+        }
+
+        /**
+         * Settings of a cache region; the ones left unset default to {@code jhipster.cache.ehcache}.
+         */
+        public static class Region {
+
+            private Long maxEntries;
+
+            private DataSize offHeapSize;
+
+            private Duration timeToLive;
+
+            private Duration timeToIdle;
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public DataSize getOffHeapSize() {
+                return offHeapSize;
+            }
+
+            public void setOffHeapSize(DataSize offHeapSize) {
+                this.offHeapSize = offHeapSize;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Duration getTimeToIdle() {
+                return timeToIdle;
+            }
+
+            public void setTimeToIdle(Duration timeToIdle) {
+                this.timeToIdle = timeToIdle;
+            }
+        }
+
+        public static class Invalidation {
+
+            private Boolean enabled = false;
+
+            private String channel = "cache_invalidation";
+
+            private Duration pollInterval = Duration.ofMillis(500);
+
+            private Duration retryInterval = Duration.ofSeconds(5);
+
+            public Boolean getEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(Boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getChannel() {
+                return channel;
+            }
+
+            public void setChannel(String channel) {
+                this.channel = channel;
+            }
+
+            public Duration getPollInterval() {
+                return pollInterval;
+            }
+
+            public void setPollInterval(Duration pollInterval) {
+                this.pollInterval = pollInterval;
+            }
+
+            public Duration getRetryInterval() {
+                return retryInterval;
+            }
+
+            public void setRetryInterval(Duration retryInterval) {
+                this.retryInterval = retryInterval;
+            }
+        }
+
+        public static class Warmup {
+
+            private Boolean enabled = false;
+
+            private Duration timeout = Duration.ofSeconds(30);
+
+            private Integer maxRows = 1000;
+
+            public Boolean getEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(Boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getTimeout() {
+                return timeout;
+            }
+
+            public void setTimeout(Duration timeout) {
+                this.timeout = timeout;
+            }
+
+            public Integer getMaxRows() {
+                return maxRows;
+            }
+
+            public void setMaxRows(Integer maxRows) {
+                this.maxRows = maxRows;
+            }
+        }
+    }
+
+    public static class UserLookupFilter {
+
+        // unset: enabled along with the cache invalidation, which sends the users written to the other instances
+        private Boolean enabled;
+
+        private Double falsePositiveProbability = 0.01;
+
+        private Duration rebuildInterval = Duration.ofMinutes(10);
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Double getFalsePositiveProbability() {
+            return falsePositiveProbability;
+        }
+
+        public void setFalsePositiveProbability(Double falsePositiveProbability) {
+            this.falsePositiveProbability = falsePositiveProbability;
+        }
+
+        public Duration getRebuildInterval() {
+            return rebuildInterval;
+        }
+
+        public void setRebuildInterval(Duration rebuildInterval) {
+            this.rebuildInterval = rebuildInterval;
+        }
+    }
     // jhipster-needle-application-properties-property-class
+
 }
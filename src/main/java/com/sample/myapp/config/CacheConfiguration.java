@@ -1,7 +1,14 @@
 package com.sample.myapp.config;
 
+import io.micrometer.core.instrument.config.MeterFilter;
 import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.jsr107.Eh107Configuration;
 import org.hibernate.cache.jcache.ConfigSettings;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,20 +28,13 @@ public class CacheConfiguration {
 
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final Map<String, ApplicationProperties.Cache.Region> regions;
+    private final Map<String, String> regionEntities = new ConcurrentHashMap<>();
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
-
-        jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
-            CacheConfigurationBuilder.newCacheConfigurationBuilder(
-                Object.class,
-                Object.class,
-                ResourcePoolsBuilder.heap(ehcache.getMaxEntries())
-            )
-                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                .build()
-        );
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.regions = applicationProperties.getCache().getRegions();
     }
 
     @Bean
@@ -45,8 +45,8 @@ public class CacheConfiguration {
     @Bean
     public JCacheManagerCustomizer cacheManagerCustomizer() {
         return cm -> {
-            createCache(cm, com.sample.myapp.repository.UserRepository.USERS_BY_LOGIN_CACHE);
-            createCache(cm, com.sample.myapp.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, com.sample.myapp.repository.UserRepository.USERS_BY_LOGIN_CACHE, com.sample.myapp.domain.User.class);
+            createCache(cm, com.sample.myapp.repository.UserRepository.USERS_BY_EMAIL_CACHE, com.sample.myapp.domain.User.class);
             createCache(cm, com.sample.myapp.domain.User.class.getName());
             createCache(cm, com.sample.myapp.domain.Authority.class.getName());
             createCache(cm, com.sample.myapp.domain.User.class.getName() + ".authorities");
@@ -56,16 +56,71 @@ public class CacheConfiguration {
             createCache(cm, com.sample.myapp.domain.Tag.class.getName());
             createCache(cm, com.sample.myapp.domain.Tag.class.getName() + ".posts");
             // jhipster-needle-ehcache-add-entry
+            Set<String> unknownRegions = new TreeSet<>(regions.keySet());
+            cm.getCacheNames().forEach(unknownRegions::remove);
+            if (!unknownRegions.isEmpty()) {
+                throw new IllegalStateException("Unknown cache regions in application.cache.regions: " + unknownRegions);
+            }
         };
     }
 
+    @Bean
+    public MeterFilter cacheRegionMetrics() {
+        return new CacheRegionMetrics(regionEntities);
+    }
+
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        // Hibernate regions are named after the entity class, followed by the collection for the collection regions
+        String domainPackage = com.sample.myapp.domain.User.class.getPackageName() + ".";
+        String entityName = cacheName.startsWith(domainPackage) ? cacheName.substring(domainPackage.length()).split("\\.")[0] : "none";
+        createCache(cm, cacheName, entityName);
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName, Class<?> entity) {
+        createCache(cm, cacheName, entity.getSimpleName());
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName, String entityName) {
+        regionEntities.put(cacheName, entityName);
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(
+                cacheName,
+                Eh107Configuration.fromEhcacheCacheConfiguration(
+                    regionConfiguration(ehcache, regions.getOrDefault(cacheName, new ApplicationProperties.Cache.Region()))
+                )
+            );
+        }
+        // read by the cache metrics that Spring Boot binds, see CacheRegionMetrics
+        cm.enableStatistics(cacheName, true);
+    }
+
+    /**
+     * Build the configuration of a cache region: {@code max-entries} on the heap, and {@code off-heap-size} bytes
+     * off-heap when set, the least recently used entries moving from the heap to the off-heap tier. Entries expire
+     * {@code time-to-idle} after they were last read when set, or else {@code time-to-live} after they were written.
+     */
+    static org.ehcache.config.CacheConfiguration<Object, Object> regionConfiguration(
+        JHipsterProperties.Cache.Ehcache defaults,
+        ApplicationProperties.Cache.Region region
+    ) {
+        long maxEntries = region.getMaxEntries() != null ? region.getMaxEntries() : defaults.getMaxEntries();
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(maxEntries);
+        if (region.getOffHeapSize() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeapSize().toKilobytes(), MemoryUnit.KB);
+        }
+        ExpiryPolicy<Object, Object> expiry;
+        if (region.getTimeToIdle() != null) {
+            expiry = ExpiryPolicyBuilder.timeToIdleExpiration(region.getTimeToIdle());
+        } else {
+            Duration timeToLive = region.getTimeToLive() != null
+                ? region.getTimeToLive()
+                : Duration.ofSeconds(defaults.getTimeToLiveSeconds());
+            expiry = ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive);
         }
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, resourcePools).withExpiry(expiry).build();
     }
 
     @Autowired(required = false)
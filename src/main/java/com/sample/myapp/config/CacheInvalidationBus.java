@@ -0,0 +1,383 @@
+package com.sample.myapp.config;
+
+import com.sample.myapp.domain.User;
+import com.sample.myapp.repository.SecondLevelCacheEvictor;
+import com.sample.myapp.repository.UserLookupFilter;
+import com.sample.myapp.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.sql.DataSource;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the second-level cache of the instances of the application sharing a PostgreSQL database consistent, with
+ * {@code LISTEN}/{@code NOTIFY}.
+ * <p>
+ * The cached entities updated or deleted by a transaction, and the cached collections it changed, are the ones
+ * Hibernate evicts from the local cache. They are sent in one notification on the
+ * {@code application.cache.invalidation.channel} channel, and the other instances evict them too. The notification is
+ * sent on the connection of the transaction, once Hibernate has flushed it, just before it commits: PostgreSQL only
+ * delivers it if the transaction commits, and a transaction which cannot send it is rolled back. Changes to users
+ * also clear the {@code usersByLogin} and {@code usersByEmail} caches, which are keyed by login and email, and new
+ * users are sent too, so that their login and email are added to the {@link UserLookupFilter} of the other instances.
+ * The entities written with JDBC are evicted the same way, through {@link #evictEntity(String, Object)}.
+ * <p>
+ * Notifications are received on a dedicated connection, polled every {@code poll-interval}. When it is lost, it is
+ * reopened every {@code retry-interval}, and all the caches are cleared, as notifications may have been missed. The
+ * user lookup filter is suspended until the connection is open, then rebuilt.
+ */
+public class CacheInvalidationBus implements SecondLevelCacheEvictor, AutoCloseable {
+
+    public static final String SENT_METER_NAME = "cache.invalidation.sent";
+
+    public static final String RECEIVED_METER_NAME = "cache.invalidation.received";
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    // NOTIFY payloads must be shorter than 8000 bytes
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    static final String ENTITY = "E";
+
+    static final String COLLECTION = "C";
+
+    private final ApplicationProperties.Cache.Invalidation properties;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final DataSource dataSource;
+
+    private final DataSourceProperties dataSourceProperties;
+
+    private final javax.cache.CacheManager cacheManager;
+
+    private final UserLookupFilter userLookupFilter;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Counter sentCounter;
+
+    private final Counter receivedCounter;
+
+    private ExecutorService listener;
+
+    public CacheInvalidationBus(
+        ApplicationProperties applicationProperties,
+        EntityManagerFactory entityManagerFactory,
+        DataSource dataSource,
+        DataSourceProperties dataSourceProperties,
+        javax.cache.CacheManager cacheManager,
+        UserLookupFilter userLookupFilter,
+        MeterRegistry meterRegistry
+    ) {
+        this.properties = applicationProperties.getCache().getInvalidation();
+        this.entityManagerFactory = entityManagerFactory;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.dataSource = dataSource;
+        this.dataSourceProperties = dataSourceProperties;
+        this.cacheManager = cacheManager;
+        this.userLookupFilter = userLookupFilter;
+        this.sentCounter = Counter.builder(SENT_METER_NAME)
+            .description("Number of cache evictions sent to the other instances")
+            .register(meterRegistry);
+        this.receivedCounter = Counter.builder(RECEIVED_METER_NAME)
+            .description("Number of cache evictions received from the other instances")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Record the evictions made by Hibernate, and start receiving the ones of the other instances.
+     */
+    public void start() {
+        EventListenerRegistry eventListeners = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        EntityListener entityListener = new EntityListener();
+        eventListeners.appendListeners(EventType.POST_INSERT, entityListener);
+        eventListeners.appendListeners(EventType.POST_UPDATE, entityListener);
+        eventListeners.appendListeners(EventType.POST_DELETE, entityListener);
+        eventListeners.appendListeners(EventType.POST_COLLECTION_RECREATE, this::collectionChanged);
+        eventListeners.appendListeners(EventType.POST_COLLECTION_UPDATE, this::collectionChanged);
+        eventListeners.appendListeners(EventType.POST_COLLECTION_REMOVE, this::collectionChanged);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-invalidation-");
+        threadFactory.setDaemon(true);
+        listener = Executors.newSingleThreadExecutor(threadFactory);
+        listener.execute(this::listen);
+    }
+
+    @Override
+    public void close() {
+        if (listener != null) {
+            listener.shutdownNow();
+        }
+    }
+
+    @Override
+    public void evictEntity(String entityName, Object id) {
+        sessionFactory.getCache().evictEntityData(entityName, id);
+        // the entity was written with the connection of the transaction, bound to its entity manager
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        SessionImplementor session = entityManager != null ? entityManager.unwrap(SessionImplementor.class) : null;
+        entityChanged(session, sessionFactory.getMappingMetamodel().getEntityDescriptor(entityName), id);
+    }
+
+    private void entityChanged(SessionImplementor session, EntityPersister persister, Object id) {
+        if (persister.canWriteToCache() && id != null) {
+            invalidate(session, ENTITY + "\t" + persister.getEntityName() + "\t" + id);
+        }
+    }
+
+    private void collectionChanged(AbstractCollectionEvent event) {
+        String role = event.getCollection().getRole();
+        Object ownerId = event.getAffectedOwnerIdOrNull();
+        if (role != null && ownerId != null && sessionFactory.getMappingMetamodel().getCollectionDescriptor(role).hasCache()) {
+            invalidate(event.getSession(), COLLECTION + "\t" + role + "\t" + ownerId);
+        }
+    }
+
+    /**
+     * Record an eviction in the transaction of the session, to be sent just before it commits, or send it now without
+     * a transaction.
+     */
+    @SuppressWarnings("unchecked")
+    private void invalidate(SessionImplementor session, String eviction) {
+        if (session == null || !session.isTransactionInProgress()) {
+            try (Connection connection = dataSource.getConnection()) {
+                send(connection, Set.of(eviction));
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not send a cache eviction to the other instances", e);
+            }
+            sentCounter.increment();
+            return;
+        }
+        // bound to the session, as a transaction started within this one has its own session
+        Set<String> evictions = (Set<String>) TransactionSynchronizationManager.getResource(session);
+        if (evictions == null) {
+            Set<String> transactionEvictions = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(session, transactionEvictions);
+            BeforeTransactionCompletionProcess sending = completing ->
+                completing.doWork(connection -> send(connection, transactionEvictions));
+            AfterTransactionCompletionProcess unbinding = (success, completed) -> {
+                TransactionSynchronizationManager.unbindResourceIfPossible(session);
+                if (success) {
+                    sentCounter.increment(transactionEvictions.size());
+                }
+            };
+            session.getActionQueue().registerProcess(sending);
+            session.getActionQueue().registerProcess(unbinding);
+            evictions = transactionEvictions;
+        }
+        evictions.add(eviction);
+    }
+
+    private void send(Connection connection, Collection<String> evictions) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select pg_notify(?, ?)")) {
+            for (String payload : payloads(nodeId, evictions)) {
+                statement.setString(1, properties.getChannel());
+                statement.setString(2, payload);
+                statement.execute();
+            }
+        }
+    }
+
+    /**
+     * Split evictions in notification payloads: the id of the sending instance, then one eviction per line.
+     */
+    static List<String> payloads(String nodeId, Collection<String> evictions) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId);
+        for (String eviction : evictions) {
+            if (payload.length() > nodeId.length() && utf8Length(payload) + 1 + utf8Length(eviction) > MAX_PAYLOAD_BYTES) {
+                payloads.add(payload.toString());
+                payload = new StringBuilder(nodeId);
+            }
+            payload.append('\n').append(eviction);
+        }
+        if (payload.length() > nodeId.length()) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    private static int utf8Length(CharSequence text) {
+        return text.toString().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private void listen() {
+        // the PostgreSQL driver is only on the classpath of the prod profile
+        Class<?> pgConnectionType;
+        Method getNotifications;
+        Method getParameter;
+        try {
+            pgConnectionType = Class.forName("org.postgresql.PGConnection");
+            getNotifications = pgConnectionType.getMethod("getNotifications", int.class);
+            getParameter = Class.forName("org.postgresql.PGNotification").getMethod("getParameter");
+        } catch (ReflectiveOperationException e) {
+            LOG.error("Cache evictions can only be received from PostgreSQL, they will not be", e);
+            return;
+        }
+        boolean reconnecting = false;
+        while (!Thread.currentThread().isInterrupted()) {
+            try (
+                Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword()
+                );
+                Statement statement = connection.createStatement()
+            ) {
+                connection.setAutoCommit(true);
+                statement.execute("LISTEN " + properties.getChannel());
+                if (reconnecting) {
+                    LOG.info("Receiving cache evictions again, clearing all the caches");
+                    clearAll();
+                }
+                // the users written by the other instances are now received, the ones written before are read again
+                userLookupFilter.resume();
+                Object pgConnection = connection.unwrap(pgConnectionType);
+                int pollMillis = Math.toIntExact(properties.getPollInterval().toMillis());
+                while (!Thread.currentThread().isInterrupted()) {
+                    Object[] notifications = (Object[]) getNotifications.invoke(pgConnection, pollMillis);
+                    if (notifications != null) {
+                        for (Object notification : notifications) {
+                            receive((String) getParameter.invoke(notification));
+                        }
+                    }
+                }
+            } catch (SQLException | ReflectiveOperationException | RuntimeException e) {
+                LOG.warn("Lost the cache invalidation connection, retrying in {}: {}", properties.getRetryInterval(), e.getMessage());
+                userLookupFilter.suspend();
+                reconnecting = true;
+                try {
+                    Thread.sleep(properties.getRetryInterval().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    void receive(String payload) {
+        String[] lines = payload.split("\n");
+        if (lines[0].equals(nodeId)) {
+            return;
+        }
+        CacheImplementor cache = sessionFactory.getCache();
+        for (int i = 1; i < lines.length; i++) {
+            String[] eviction = lines[i].split("\t", 3);
+            if (eviction.length < 3) {
+                continue;
+            }
+            if (ENTITY.equals(eviction[0])) {
+                EntityPersister persister = sessionFactory.getMappingMetamodel().findEntityDescriptor(eviction[1]);
+                if (persister != null) {
+                    Object id = parseId(persister.getIdentifierType().getReturnedClass(), eviction[2]);
+                    cache.evictEntityData(eviction[1], id);
+                    if (persister.getMappedClass().equals(User.class)) {
+                        clear(UserRepository.USERS_BY_LOGIN_CACHE);
+                        clear(UserRepository.USERS_BY_EMAIL_CACHE);
+                        userLookupFilter.add((Long) id);
+                    }
+                }
+            } else if (COLLECTION.equals(eviction[0])) {
+                CollectionPersister persister = sessionFactory.getMappingMetamodel().findCollectionDescriptor(eviction[1]);
+                if (persister != null) {
+                    Class<?> ownerIdType = persister.getOwnerEntityPersister().getIdentifierType().getReturnedClass();
+                    cache.evictCollectionData(eviction[1], parseId(ownerIdType, eviction[2]));
+                }
+            }
+            receivedCounter.increment();
+        }
+    }
+
+    static Object parseId(Class<?> type, String id) {
+        if (type == Long.class) {
+            return Long.valueOf(id);
+        }
+        if (type == Integer.class) {
+            return Integer.valueOf(id);
+        }
+        if (type == UUID.class) {
+            return UUID.fromString(id);
+        }
+        return id;
+    }
+
+    private void clearAll() {
+        cacheManager.getCacheNames().forEach(this::clear);
+    }
+
+    private void clear(String cacheName) {
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private final class EntityListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            // nothing is cached for a new entity, but the other instances do not know the login and email of a new user
+            if (event.getEntity() instanceof User) {
+                entityChanged(event.getSession(), event.getPersister(), event.getId());
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            entityChanged(event.getSession(), event.getPersister(), event.getId());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            entityChanged(event.getSession(), event.getPersister(), event.getId());
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.sample.myapp.config;
+
+import com.sample.myapp.repository.UserLookupFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Propagate the evictions of the second-level cache to the other instances of the application with a
+ * {@link CacheInvalidationBus}, when {@code application.cache.invalidation.enabled} is set; the database must be
+ * PostgreSQL.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.cache.invalidation", name = "enabled", havingValue = "true")
+public class CacheInvalidationConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public CacheInvalidationBus cacheInvalidationBus(
+        ApplicationProperties applicationProperties,
+        EntityManagerFactory entityManagerFactory,
+        DataSource dataSource,
+        DataSourceProperties dataSourceProperties,
+        javax.cache.CacheManager cacheManager,
+        UserLookupFilter userLookupFilter,
+        MeterRegistry meterRegistry
+    ) {
+        return new CacheInvalidationBus(
+            applicationProperties,
+            entityManagerFactory,
+            dataSource,
+            dataSourceProperties,
+            cacheManager,
+            userLookupFilter,
+            meterRegistry
+        );
+    }
+}
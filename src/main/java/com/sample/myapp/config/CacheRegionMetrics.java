@@ -0,0 +1,39 @@
+package com.sample.myapp.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.config.MeterFilter;
+import java.util.Map;
+
+/**
+ * Tags the metrics of every cache region with the entity it caches.
+ * <p>
+ * Spring Boot binds Micrometer's {@code JCacheMetrics} to every cache of the JCache manager, tagged by {@code cache},
+ * the name of the region: {@code cache.gets} by {@code result}, {@code cache.puts}, {@code cache.evictions} and
+ * {@code cache.removals}. They are read from the JCache statistics, which {@link CacheConfiguration} enables on the
+ * regions it creates. JCache does not report the number of entries of a cache nor their size, so neither is measured.
+ */
+public class CacheRegionMetrics implements MeterFilter {
+
+    public static final String ENTITY_TAG = "entity";
+
+    private static final String CACHE_TAG = "cache";
+
+    private final Map<String, String> regionEntities;
+
+    /**
+     * @param regionEntities the entity cached by each region, by region name.
+     */
+    public CacheRegionMetrics(Map<String, String> regionEntities) {
+        this.regionEntities = regionEntities;
+    }
+
+    @Override
+    public Meter.Id map(Meter.Id id) {
+        String region = id.getTag(CACHE_TAG);
+        if (region == null || !id.getName().startsWith(CACHE_TAG + ".")) {
+            return id;
+        }
+        return id.withTag(Tag.of(ENTITY_TAG, regionEntities.getOrDefault(region, "none")));
+    }
+}
@@ -11,5 +11,8 @@ public final class Constants {
     public static final String SYSTEM = "system";
     public static final String DEFAULT_LANGUAGE = "en";
 
+    // Spring profile serving the query string searches of posts and tags from local Lucene indices, besides Elasticsearch
+    public static final String SPRING_PROFILE_LUCENE = "lucene";
+
     private Constants() {}
 }
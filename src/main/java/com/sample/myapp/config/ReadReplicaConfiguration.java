@@ -0,0 +1,105 @@
+package com.sample.myapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * Replace the data source auto-configured from {@code spring.datasource} by a {@link ReplicaRoutingDataSource}, when
+ * {@code application.read-replicas.enabled} is set.
+ * <p>
+ * The replica pools share the {@code spring.datasource.hikari} settings of the primary pool.
+ * <p>
+ * Read-only transactions only read the second-level cache, they do not put what they read in it: a replica may be up to
+ * {@code max-lag} behind, and the rows it returns just after an entity was evicted would otherwise be served from the
+ * cache, by every instance, for the whole time to live of the region. The cache is filled by the other transactions,
+ * which read from the primary database. For the same reason, the users read from a replica are not put in the
+ * {@code usersByLogin} and {@code usersByEmail} caches, see {@link com.sample.myapp.repository.ReplicaReads}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.read-replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadReplicaConfiguration.class);
+
+    private static final String DEFAULT_POOL_NAME = "Hikari";
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaRoutingDataSource dataSource(
+        DataSourceProperties dataSourceProperties,
+        ApplicationProperties applicationProperties,
+        Environment env,
+        MeterRegistry meterRegistry
+    ) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName(DEFAULT_POOL_NAME);
+        }
+
+        ApplicationProperties.ReadReplicas properties = applicationProperties.getReadReplicas();
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ApplicationProperties.ReadReplicas.Instance instance : properties.getInstances()) {
+            HikariDataSource replica = new HikariDataSource();
+            primary.copyStateTo(replica);
+            replica.setPoolName(primary.getPoolName() + "-replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(instance.getUrl());
+            if (instance.getUsername() != null) {
+                replica.setUsername(instance.getUsername());
+                replica.setPassword(instance.getPassword());
+            }
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        LOG.info("Routing read-only transactions to {} read replicas", replicas.size());
+        return new ReplicaRoutingDataSource(primary, replicas, properties, meterRegistry);
+    }
+
+    @Bean
+    public static BeanPostProcessor readOnlyCacheModeJpaDialect() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean entityManagerFactoryBean) {
+                    entityManagerFactoryBean.setJpaDialect(new ReadOnlyCacheModeJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Dialect keeping the sessions of read-only transactions from putting entities in the second-level cache.
+     */
+    static class ReadOnlyCacheModeJpaDialect extends HibernateJpaDialect {
+
+        @Override
+        public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition) throws SQLException {
+            Object transactionData = super.beginTransaction(entityManager, definition);
+            if (definition.isReadOnly()) {
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.GET);
+            }
+            return transactionData;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.sample.myapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.sample.myapp.repository.ReplicaReads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Data source sending the connections of read-only transactions to read replicas, and all the others to the primary
+ * database.
+ * <p>
+ * Physical connections are only fetched on the first statement, once Spring has flagged the connection of a
+ * {@code @Transactional(readOnly = true)} method as read-only: see {@link LazyConnectionDataSourceProxy}. Read-only
+ * connections are spread over the replicas in turn. A replica is skipped while its replication lag, checked every
+ * {@code application.read-replicas.check-interval}, is above {@code application.read-replicas.max-lag}, or while it
+ * cannot be reached: read-only work falls back to the primary database when no replica is available. The transactions
+ * given a replica connection are marked with {@link ReplicaReads}, so that what they read is not cached.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public static final String CONNECTIONS_METER_NAME = "datasource.read-only.connections";
+    public static final String CONNECTIONS_METER_DESCRIPTION = "Number of connections used by read-only transactions.";
+    public static final String LAG_METER_NAME = "datasource.replica.lag";
+    public static final String LAG_METER_DESCRIPTION = "Replication lag of the read replica, as of the last check.";
+    public static final String AVAILABLE_METER_NAME = "datasource.replica.available";
+    public static final String AVAILABLE_METER_DESCRIPTION = "Whether the read replica receives read-only transactions.";
+    public static final String POOL_DIMENSION = "pool";
+
+    private final HikariDataSource primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final ApplicationProperties.ReadReplicas properties;
+
+    private final Counter primaryConnectionsCounter;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private ScheduledExecutorService lagChecker;
+
+    public ReplicaRoutingDataSource(
+        HikariDataSource primary,
+        List<HikariDataSource> replicas,
+        ApplicationProperties.ReadReplicas properties,
+        MeterRegistry registry
+    ) {
+        super(primary);
+        this.primary = primary;
+        this.properties = properties;
+        this.primaryConnectionsCounter = connectionsCounter(primary.getPoolName(), registry);
+        for (HikariDataSource dataSource : replicas) {
+            Replica replica = new Replica(dataSource, connectionsCounter(dataSource.getPoolName(), registry));
+            Gauge.builder(LAG_METER_NAME, replica, r -> r.lag)
+                .baseUnit("seconds")
+                .description(LAG_METER_DESCRIPTION)
+                .tag(POOL_DIMENSION, dataSource.getPoolName())
+                .register(registry);
+            Gauge.builder(AVAILABLE_METER_NAME, replica, r -> r.available ? 1 : 0)
+                .description(AVAILABLE_METER_DESCRIPTION)
+                .tag(POOL_DIMENSION, dataSource.getPoolName())
+                .register(registry);
+            this.replicas.add(replica);
+        }
+        setReadOnlyDataSource(new ReadOnlyDataSource());
+    }
+
+    private static Counter connectionsCounter(String poolName, MeterRegistry registry) {
+        return Counter.builder(CONNECTIONS_METER_NAME)
+            .description(CONNECTIONS_METER_DESCRIPTION)
+            .tag(POOL_DIMENSION, poolName)
+            .register(registry);
+    }
+
+    /**
+     * Check the replicas now, then every {@code application.read-replicas.check-interval}.
+     */
+    public void start() {
+        lagChecker = Executors.newSingleThreadScheduledExecutor(threadFactory());
+        lagChecker.scheduleWithFixedDelay(this::checkReplicas, 0, properties.getCheckInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static CustomizableThreadFactory threadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("replica-lag-check-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    @Override
+    public void close() {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    /**
+     * Measure the replication lag of each replica, and make it available to read-only transactions only if the lag is
+     * acceptable.
+     */
+    public void checkReplicas() {
+        double maxLag = properties.getMaxLag().toMillis() / 1000.0;
+        for (Replica replica : replicas) {
+            try (
+                Connection connection = replica.dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(properties.getLagQuery())
+            ) {
+                replica.lag = resultSet.next() ? resultSet.getDouble(1) : 0;
+                boolean available = replica.lag <= maxLag;
+                if (available != replica.available) {
+                    if (available) {
+                        LOG.info("Read replica {} is available again, with a lag of {}s", replica.dataSource.getPoolName(), replica.lag);
+                    } else {
+                        LOG.warn("Read replica {} lags {}s behind, skipping it", replica.dataSource.getPoolName(), replica.lag);
+                    }
+                }
+                replica.available = available;
+            } catch (SQLException | RuntimeException e) {
+                markUnreachable(replica, e);
+            }
+        }
+    }
+
+    private void markUnreachable(Replica replica, Exception e) {
+        if (replica.available) {
+            LOG.warn("Read replica {} cannot be reached, skipping it: {}", replica.dataSource.getPoolName(), e.getMessage());
+        }
+        replica.lag = Double.NaN;
+        replica.available = false;
+    }
+
+    private Connection getReadOnlyConnection(ConnectionFactory factory) throws SQLException {
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (replica.available) {
+                try {
+                    Connection connection = factory.getConnection(replica.dataSource);
+                    replica.connectionsCounter.increment();
+                    ReplicaReads.markCurrentTransaction();
+                    return connection;
+                } catch (SQLException e) {
+                    markUnreachable(replica, e);
+                }
+            }
+        }
+        Connection connection = factory.getConnection(primary);
+        primaryConnectionsCounter.increment();
+        return connection;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionFactory {
+        Connection getConnection(HikariDataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+
+        private final Counter connectionsCounter;
+
+        private volatile boolean available = true;
+
+        private volatile double lag;
+
+        private Replica(HikariDataSource dataSource, Counter connectionsCounter) {
+            this.dataSource = dataSource;
+            this.connectionsCounter = connectionsCounter;
+        }
+    }
+
+    private final class ReadOnlyDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return getReadOnlyConnection(HikariDataSource::getConnection);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getReadOnlyConnection(dataSource -> dataSource.getConnection(username, password));
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.sample.myapp.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Storage format of {@link Post#getContent()}.
+ * <p>
+ * Content is stored either as plain text, or deflated and base64 encoded behind {@link #HEADER}. Values without the
+ * header are always read as plain text, so rows written before compression was enabled stay readable, and
+ * compression can be turned off again at any time.
+ */
+public final class PostContentCodec {
+
+    /**
+     * Prefix of compressed values. It starts with a control character that never appears in posts typed by users.
+     */
+    public static final String HEADER = "\u001Fdeflate1:";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private PostContentCodec() {}
+
+    /**
+     * Whether the given stored value is compressed.
+     *
+     * @param stored the value of the content column.
+     * @return {@code true} if the value starts with {@link #HEADER}.
+     */
+    public static boolean isCompressed(String stored) {
+        return stored != null && stored.startsWith(HEADER);
+    }
+
+    /**
+     * Encode content for storage.
+     * <p>
+     * Content shorter than {@code minLength} is kept as plain text, and so is content that does not get smaller once
+     * compressed and encoded. Content that would be mistaken for a compressed value is always compressed.
+     *
+     * @param content the content of the post.
+     * @param minLength the length from which compression is attempted.
+     * @return the value to store.
+     */
+    public static String encode(String content, int minLength) {
+        if (content == null) {
+            return null;
+        }
+        boolean ambiguous = isCompressed(content);
+        if (content.length() < minLength && !ambiguous) {
+            return content;
+        }
+        String compressed = HEADER + Base64.getEncoder().encodeToString(deflate(content.getBytes(StandardCharsets.UTF_8)));
+        return compressed.length() < content.length() || ambiguous ? compressed : content;
+    }
+
+    /**
+     * Decode a stored value.
+     *
+     * @param stored the value of the content column.
+     * @return the content of the post.
+     */
+    public static String decode(String stored) {
+        if (!isCompressed(stored)) {
+            return stored;
+        }
+        try {
+            byte[] deflated = Base64.getDecoder().decode(stored.substring(HEADER.length()));
+            return inflate(deflated, false);
+        } catch (IllegalArgumentException | DataFormatException e) {
+            // not written by this codec: this is plain text that happens to start like a compressed value
+            return stored;
+        }
+    }
+
+    /**
+     * Decode the beginning of a stored value, as returned by a {@code substring} on the content column.
+     * <p>
+     * The result is the longest text that can be decoded from the given prefix, which is a prefix of the content.
+     *
+     * @param storedPrefix the beginning of the value of the content column.
+     * @return the beginning of the content of the post.
+     */
+    public static String decodePrefix(String storedPrefix) {
+        if (!isCompressed(storedPrefix)) {
+            return storedPrefix;
+        }
+        String base64 = storedPrefix.substring(HEADER.length());
+        try {
+            byte[] deflated = Base64.getDecoder().decode(base64.substring(0, base64.length() - base64.length() % 4));
+            return inflate(deflated, true);
+        } catch (IllegalArgumentException | DataFormatException e) {
+            return storedPrefix;
+        }
+    }
+
+    /**
+     * Streaming variant of {@link #decode(String)}.
+     *
+     * @param stored the value of the content column.
+     * @return a reader of the content of the post.
+     * @throws IOException if the stored value cannot be read.
+     */
+    public static Reader decodingReader(Reader stored) throws IOException {
+        PushbackReader pushback = new PushbackReader(stored, HEADER.length());
+        char[] head = new char[HEADER.length()];
+        int length = readFully(pushback, head);
+        if (length == head.length && HEADER.equals(new String(head))) {
+            InputStream base64 = new InflaterInputStream(Base64.getDecoder().wrap(new AsciiInputStream(pushback)));
+            return new InputStreamReader(base64, StandardCharsets.UTF_8);
+        }
+        pushback.unread(head, 0, length);
+        return pushback;
+    }
+
+    /**
+     * Streaming variant of {@link #encode(String, int)}.
+     * <p>
+     * Only the first {@code minLength} characters of the content are buffered. Unlike {@link #encode(String, int)}, long
+     * content is compressed even if it does not get smaller, as that is only known once the whole content is read.
+     *
+     * @param content a reader of the content of the post.
+     * @param compress whether content of at least {@code minLength} characters is compressed.
+     * @param minLength the length from which compression is attempted.
+     * @return a reader of the value to store.
+     * @throws IOException if the content cannot be read.
+     */
+    public static Reader encodingReader(Reader content, boolean compress, int minLength) throws IOException {
+        int peekLength = compress ? Math.max(minLength, HEADER.length()) : HEADER.length();
+        PushbackReader pushback = new PushbackReader(content, peekLength);
+        char[] head = new char[peekLength];
+        int length = readFully(pushback, head);
+        pushback.unread(head, 0, length);
+        boolean ambiguous = length >= HEADER.length() && HEADER.equals(new String(head, 0, HEADER.length()));
+        if (ambiguous || (compress && length >= minLength)) {
+            return new CompressingReader(pushback);
+        }
+        return pushback;
+    }
+
+    private static int readFully(Reader reader, char[] buffer) throws IOException {
+        int length = 0;
+        int read;
+        while (length < buffer.length && (read = reader.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+        }
+        return length;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(input.length / 4, 64));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String inflate(byte[] input, boolean partial) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(input.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    if (partial) {
+                        break;
+                    }
+                    throw new DataFormatException("Truncated content");
+                }
+                output.write(buffer, 0, length);
+            }
+            return toString(output.toByteArray(), partial);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static String toString(byte[] utf8, boolean partial) {
+        if (!partial) {
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+        // the prefix may end in the middle of a multi-byte character, which is dropped
+        CharBuffer chars = CharBuffer.allocate(utf8.length);
+        StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT)
+            .decode(ByteBuffer.wrap(utf8), chars, false);
+        return chars.flip().toString();
+    }
+
+    /**
+     * Reads base64 characters as bytes.
+     */
+    private static final class AsciiInputStream extends InputStream {
+
+        private final Reader reader;
+
+        private AsciiInputStream(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return reader.read();
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            char[] chars = new char[length];
+            int read = reader.read(chars, 0, length);
+            for (int i = 0; i < read; i++) {
+                bytes[offset + i] = (byte) chars[i];
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads the compressed form of a content, compressing it as it is read.
+     */
+    private static final class CompressingReader extends Reader {
+
+        private final Reader content;
+
+        private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(BUFFER_SIZE);
+
+        private final Writer compressor;
+
+        private final char[] buffer = new char[BUFFER_SIZE];
+
+        private byte[] pending = HEADER.getBytes(StandardCharsets.US_ASCII);
+
+        private int position;
+
+        private boolean finished;
+
+        private CompressingReader(Reader content) {
+            this.content = content;
+            this.compressor = new OutputStreamWriter(new DeflaterOutputStream(Base64.getEncoder().wrap(compressed)), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int read(char[] chars, int offset, int length) throws IOException {
+            while (position == pending.length) {
+                if (finished) {
+                    return -1;
+                }
+                int read = content.read(buffer);
+                if (read == -1) {
+                    compressor.close();
+                    finished = true;
+                } else {
+                    compressor.write(buffer, 0, read);
+                }
+                pending = compressed.toByteArray();
+                position = 0;
+                compressed.reset();
+            }
+            int count = Math.min(length, pending.length - position);
+            for (int i = 0; i < count; i++) {
+                chars[offset + i] = (char) pending[position++];
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            content.close();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.sample.myapp.domain;
+
+import com.sample.myapp.config.ApplicationProperties;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Converts {@link Post#getContent()} to and from its storage format, see {@link PostContentCodec}.
+ * <p>
+ * Content is compressed on write only when {@code application.post-content.compress} is enabled, but is always
+ * decompressed on read.
+ */
+@Converter
+public class PostContentConverter implements AttributeConverter<String, String> {
+
+    private final ApplicationProperties.PostContent properties;
+
+    public PostContentConverter(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getPostContent();
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String content) {
+        if (Boolean.TRUE.equals(properties.getCompress()) || PostContentCodec.isCompressed(content)) {
+            return PostContentCodec.encode(content, properties.getCompressMinLength());
+        }
+        return content;
+    }
+
+    @Override
+    public String convertToEntityAttribute(String stored) {
+        return PostContentCodec.decode(stored);
+    }
+}
@@ -0,0 +1,84 @@
+package com.sample.myapp.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A read-only view of a {@link Post} for list screens: everything but the content, which is reduced to an excerpt.
+ */
+public class PostSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Maximum number of characters of the content kept in {@link #getExcerpt()}.
+     */
+    public static final int EXCERPT_LENGTH = 200;
+
+    /**
+     * Number of characters of the content column to select to build an excerpt: compressed content needs more than
+     * {@link #EXCERPT_LENGTH} characters, see {@link PostContentCodec#decodePrefix(String)}.
+     */
+    public static final int STORED_EXCERPT_LENGTH = 2048;
+
+    private final Long id;
+
+    private final String title;
+
+    private final Instant date;
+
+    private final String excerpt;
+
+    @JsonIgnoreProperties(value = { "user" }, allowSetters = true)
+    private final Mode mode;
+
+    @JsonIgnoreProperties(value = { "posts" }, allowSetters = true)
+    private final Set<Tag> tags = new HashSet<>();
+
+    public PostSummary(Long id, String title, Instant date, String storedExcerpt, Mode mode) {
+        this.id = id;
+        this.title = title;
+        this.date = date;
+        String excerpt = PostContentCodec.decodePrefix(storedExcerpt);
+        this.excerpt = excerpt != null && excerpt.length() > EXCERPT_LENGTH ? excerpt.substring(0, EXCERPT_LENGTH) : excerpt;
+        this.mode = mode;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public String getTitle() {
+        return this.title;
+    }
+
+    public Instant getDate() {
+        return this.date;
+    }
+
+    public String getExcerpt() {
+        return this.excerpt;
+    }
+
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    public Set<Tag> getTags() {
+        return this.tags;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PostSummary{" +
+            "id=" + getId() +
+            ", title='" + getTitle() + "'" +
+            ", date='" + getDate() + "'" +
+            ", excerpt='" + getExcerpt() + "'" +
+            "}";
+    }
+}
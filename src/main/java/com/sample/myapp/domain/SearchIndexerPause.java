@@ -0,0 +1,89 @@
+package com.sample.myapp.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * The pause of the search outbox, shared by the instances of the application: a single row, which the instances
+ * applying the outbox read with a shared lock, and which a reindex updates to pause them all until a lease expires.
+ */
+@Entity
+@Table(name = "search_indexer_pause")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class SearchIndexerPause implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The id of the single row.
+     */
+    public static final Long ID = 1L;
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "paused_until")
+    private Instant pausedUntil;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public SearchIndexerPause id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Instant getPausedUntil() {
+        return this.pausedUntil;
+    }
+
+    public SearchIndexerPause pausedUntil(Instant pausedUntil) {
+        this.setPausedUntil(pausedUntil);
+        return this;
+    }
+
+    public void setPausedUntil(Instant pausedUntil) {
+        this.pausedUntil = pausedUntil;
+    }
+
+    /**
+     * @param now the current time.
+     * @return whether the outbox is paused at that time.
+     */
+    public boolean isPausedAt(Instant now) {
+        return pausedUntil != null && pausedUntil.isAfter(now);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchIndexerPause)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((SearchIndexerPause) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SearchIndexerPause{" +
+            "id=" + getId() +
+            ", pausedUntil='" + getPausedUntil() + "'" +
+            "}";
+    }
+}
@@ -1,6 +1,7 @@
 package com.sample.myapp.repository;
 
 import com.sample.myapp.domain.Mode;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -29,12 +30,22 @@ public interface ModeRepository extends JpaRepository<Mode, Long> {
         return this.findAllWithToOneRelationships(pageable);
     }
 
+    default List<Mode> findAllWithEagerRelationshipsByIdIn(Collection<Long> ids) {
+        return this.findAllWithToOneRelationshipsByIdIn(ids);
+    }
+
     @Query(value = "select mode from Mode mode left join fetch mode.user", countQuery = "select count(mode) from Mode mode")
     Page<Mode> findAllWithToOneRelationships(Pageable pageable);
 
     @Query("select mode from Mode mode left join fetch mode.user")
     List<Mode> findAllWithToOneRelationships();
 
+    @Query("select mode from Mode mode left join fetch mode.user where mode.id in :ids")
+    List<Mode> findAllWithToOneRelationshipsByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("select mode from Mode mode left join fetch mode.user where mode.id =:id")
     Optional<Mode> findOneWithToOneRelationships(@Param("id") Long id);
+
+    @Query("select mode.version from Mode mode where mode.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
@@ -1,13 +1,23 @@
 package com.sample.myapp.repository;
 
 import com.sample.myapp.domain.Post;
+import com.sample.myapp.domain.PostSummary;
+import com.sample.myapp.domain.Tag;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.util.DigestUtils;
 
 /**
  * Spring Data JPA repository for the Post entity.
@@ -16,7 +26,12 @@ import org.springframework.stereotype.Repository;
  * For more information refer to https://github.com/jhipster/generator-jhipster/issues/17990.
  */
 @Repository
-public interface PostRepository extends PostRepositoryWithBagRelationships, JpaRepository<Post, Long> {
+public interface PostRepository
+    extends
+        PostRepositoryWithBagRelationships,
+        PostRepositoryWithContentStream,
+        PostRepositoryWithRelationshipReferences,
+        JpaRepository<Post, Long> {
     default Optional<Post> findOneWithEagerRelationships(Long id) {
         return this.fetchBagRelationships(this.findOneWithToOneRelationships(id));
     }
@@ -29,12 +44,141 @@ public interface PostRepository extends PostRepositoryWithBagRelationships, JpaR
         return this.fetchBagRelationships(this.findAllWithToOneRelationships(pageable));
     }
 
+    default List<Post> findAllWithEagerRelationshipsByIdIn(Collection<Long> ids) {
+        return this.fetchBagRelationships(this.findAllWithToOneRelationshipsByIdIn(ids));
+    }
+
+    /**
+     * Keyset (seek) variant of {@link #findAllWithEagerRelationships(Pageable)}: returns the posts that come strictly
+     * after the given {@code (date, id)} position in {@code date desc, id desc} order, without any count query.
+     *
+     * @param date the date of the last post of the previous slice, or {@code null} for the first slice.
+     * @param id the id of the last post of the previous slice, or {@code null} for the first slice.
+     * @param limit the maximum number of posts to return.
+     * @return the posts of the slice.
+     */
+    default List<Post> findAllWithEagerRelationshipsAfter(Instant date, Long id, Limit limit) {
+        if (date == null || id == null) {
+            return this.fetchBagRelationships(this.findFirstWithToOneRelationships(limit));
+        }
+        return this.fetchBagRelationships(this.findAllWithToOneRelationshipsAfter(date, id, limit));
+    }
+
+    /**
+     * Variant of {@link #findAllWithEagerRelationshipsAfter(Instant, Long, Limit)} restricted to the posts of a period
+     * and of a mode.
+     *
+     * @param from the start of the period, included, or {@code null}.
+     * @param to the end of the period, excluded, or {@code null}.
+     * @param modeId the id of the mode of the posts, or {@code null} for all the posts.
+     * @param date the date of the last post of the previous slice, or {@code null} for the first slice.
+     * @param id the id of the last post of the previous slice, or {@code null} for the first slice.
+     * @param limit the maximum number of posts to return.
+     * @return the posts of the slice.
+     */
+    default List<Post> findAllWithEagerRelationshipsAfter(Instant from, Instant to, Long modeId, Instant date, Long id, Limit limit) {
+        if (date == null || id == null) {
+            return this.fetchBagRelationships(this.findFirstWithToOneRelationships(from, to, modeId, limit));
+        }
+        return this.fetchBagRelationships(this.findAllWithToOneRelationshipsAfter(from, to, modeId, date, id, limit));
+    }
+
+    /**
+     * Get a page of {@link PostSummary}, with their mode and tags. The content of the posts is never read as a whole:
+     * only its first {@link PostSummary#STORED_EXCERPT_LENGTH} characters are selected.
+     *
+     * @param pageable the pagination information.
+     * @return the page of summaries.
+     */
+    default Page<PostSummary> findAllSummaries(Pageable pageable) {
+        Page<PostSummary> page = this.findAllSummariesWithToOneRelationships(pageable);
+        if (page.hasContent()) {
+            Map<Long, PostSummary> summaries = page.getContent().stream().collect(Collectors.toMap(PostSummary::getId, Function.identity()));
+            this.findTagsByPostIdIn(summaries.keySet()).forEach(row -> summaries.get((Long) row[0]).getTags().add((Tag) row[1]));
+        }
+        return page;
+    }
+
+    @Query(
+        value = "select new com.sample.myapp.domain.PostSummary(post.id, post.title, post.date, substring(cast(post.content as String), 1, " +
+        PostSummary.STORED_EXCERPT_LENGTH +
+        "), mode) from Post post left join post.mode mode",
+        countQuery = "select count(post) from Post post"
+    )
+    Page<PostSummary> findAllSummariesWithToOneRelationships(Pageable pageable);
+
+    @Query("select post.id, tag from Post post join post.tags tag where post.id in :ids")
+    List<Object[]> findTagsByPostIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Get a value that changes whenever the representation of a post changes, without loading the post: it is made of
+     * the versions of the post, and of its mode and tags.
+     *
+     * @param id the id of the post.
+     * @return the version of the representation of the post, or empty if the post does not exist.
+     */
+    default Optional<String> findRepresentationVersionById(Long id) {
+        return this.findVersionsWithToOneRelationshipsById(id)
+            .stream()
+            .findFirst()
+            .map(versions -> {
+                String tags = this.findTagVersionsByPostId(id)
+                    .stream()
+                    .map(tagVersions -> tagVersions[0] + ":" + tagVersions[1])
+                    .collect(Collectors.joining(","));
+                String mode = versions[1] != null ? versions[1] + ":" + versions[2] : "";
+                return versions[0] + "-" + DigestUtils.md5DigestAsHex((mode + ";" + tags).getBytes(StandardCharsets.UTF_8));
+            });
+    }
+
+    @Query("select post.version from Post post where post.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select post.version, mode.id, mode.version from Post post left join post.mode mode where post.id = :id")
+    List<Object[]> findVersionsWithToOneRelationshipsById(@Param("id") Long id);
+
+    @Query("select tag.id, tag.version from Post post join post.tags tag where post.id = :id order by tag.id")
+    List<Object[]> findTagVersionsByPostId(@Param("id") Long id);
+
+    @Query("select post from Post post left join fetch post.mode order by post.date desc, post.id desc")
+    List<Post> findFirstWithToOneRelationships(Limit limit);
+
+    @Query(
+        "select post from Post post left join fetch post.mode where post.date <= :date and (post.date < :date or post.id < :id) order by post.date desc, post.id desc"
+    )
+    List<Post> findAllWithToOneRelationshipsAfter(@Param("date") Instant date, @Param("id") Long id, Limit limit);
+
+    @Query(
+        "select post from Post post left join fetch post.mode mode where (:from is null or post.date >= :from) and (:to is null or post.date < :to) and (:modeId is null or mode.id = :modeId) order by post.date desc, post.id desc"
+    )
+    List<Post> findFirstWithToOneRelationships(
+        @Param("from") Instant from,
+        @Param("to") Instant to,
+        @Param("modeId") Long modeId,
+        Limit limit
+    );
+
+    @Query(
+        "select post from Post post left join fetch post.mode mode where (:from is null or post.date >= :from) and (:to is null or post.date < :to) and (:modeId is null or mode.id = :modeId) and post.date <= :date and (post.date < :date or post.id < :id) order by post.date desc, post.id desc"
+    )
+    List<Post> findAllWithToOneRelationshipsAfter(
+        @Param("from") Instant from,
+        @Param("to") Instant to,
+        @Param("modeId") Long modeId,
+        @Param("date") Instant date,
+        @Param("id") Long id,
+        Limit limit
+    );
+
     @Query(value = "select post from Post post left join fetch post.mode", countQuery = "select count(post) from Post post")
     Page<Post> findAllWithToOneRelationships(Pageable pageable);
 
     @Query("select post from Post post left join fetch post.mode")
     List<Post> findAllWithToOneRelationships();
 
+    @Query("select post from Post post left join fetch post.mode where post.id in :ids")
+    List<Post> findAllWithToOneRelationshipsByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("select post from Post post left join fetch post.mode where post.id =:id")
     Optional<Post> findOneWithToOneRelationships(@Param("id") Long id);
 }
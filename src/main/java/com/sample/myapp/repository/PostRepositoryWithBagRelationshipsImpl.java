@@ -1,27 +1,22 @@
 package com.sample.myapp.repository;
 
 import com.sample.myapp.domain.Post;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.IntStream;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 
 /**
  * Utility repository to load bag relationships based on https://vladmihalcea.com/hibernate-multiplebagfetchexception/
+ * <p>
+ * The posts are already loaded, so only their tags collections are initialized: thanks to the batch size of
+ * {@link Post#getTags()}, Hibernate loads the tags of a whole page of posts with a single query on the join table,
+ * without selecting the post rows (and their content) a second time.
  */
 public class PostRepositoryWithBagRelationshipsImpl implements PostRepositoryWithBagRelationships {
 
-    private static final String ID_PARAMETER = "id";
-    private static final String POSTS_PARAMETER = "posts";
-
-    @PersistenceContext
-    private EntityManager entityManager;
-
     @Override
     public Optional<Post> fetchBagRelationships(Optional<Post> post) {
         return post.map(this::fetchTags);
@@ -38,20 +33,13 @@ public class PostRepositoryWithBagRelationshipsImpl implements PostRepositoryWit
     }
 
     Post fetchTags(Post result) {
-        return entityManager
-            .createQuery("select post from Post post left join fetch post.tags where post.id = :id", Post.class)
-            .setParameter(ID_PARAMETER, result.getId())
-            .getSingleResult();
+        Hibernate.initialize(result.getTags());
+        return result;
     }
 
     List<Post> fetchTags(List<Post> posts) {
-        HashMap<Object, Integer> order = new HashMap<>();
-        IntStream.range(0, posts.size()).forEach(index -> order.put(posts.get(index).getId(), index));
-        List<Post> result = entityManager
-            .createQuery("select post from Post post left join fetch post.tags where post in :posts", Post.class)
-            .setParameter(POSTS_PARAMETER, posts)
-            .getResultList();
-        Collections.sort(result, (o1, o2) -> Integer.compare(order.get(o1.getId()), order.get(o2.getId())));
-        return result;
+        // the first initialization batch-loads the tags of the following posts too, the next ones are no-ops
+        posts.forEach(post -> Hibernate.initialize(post.getTags()));
+        return posts;
     }
 }
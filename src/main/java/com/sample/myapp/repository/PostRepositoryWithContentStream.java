@@ -0,0 +1,32 @@
+package com.sample.myapp.repository;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming access to the content of posts, which can be too large to be loaded in memory at once.
+ */
+public interface PostRepositoryWithContentStream {
+    /**
+     * Read the content of a post.
+     *
+     * @param id the id of the post.
+     * @param handler the handler of the content, called only if the post exists.
+     * @return {@code true} if the post exists.
+     */
+    boolean readContent(Long id, ContentHandler handler);
+
+    /**
+     * Replace the content of a post.
+     *
+     * @param id the id of the post.
+     * @param content the new content.
+     * @return {@code true} if the post exists.
+     */
+    boolean writeContent(Long id, Reader content);
+
+    @FunctionalInterface
+    interface ContentHandler {
+        void handle(Reader content) throws IOException;
+    }
+}
@@ -0,0 +1,90 @@
+package com.sample.myapp.repository;
+
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.domain.Post;
+import com.sample.myapp.domain.PostContentCodec;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Utility repository streaming the content column through JDBC, bypassing the {@link Post} entity: the content is
+ * (de)compressed on the fly, see {@link PostContentCodec}.
+ */
+public class PostRepositoryWithContentStreamImpl implements PostRepositoryWithContentStream {
+
+    private static final String SELECT_CONTENT_SQL = "select content from post where id = ?";
+
+    private static final String UPDATE_CONTENT_SQL = "update post set content = ?, version = version + 1 where id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ApplicationProperties.PostContent properties;
+
+    private final Optional<SecondLevelCacheEvictor> cacheEvictor;
+
+    public PostRepositoryWithContentStreamImpl(
+        JdbcTemplate jdbcTemplate,
+        ApplicationProperties applicationProperties,
+        Optional<SecondLevelCacheEvictor> cacheEvictor
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = applicationProperties.getPostContent();
+        this.cacheEvictor = cacheEvictor;
+    }
+
+    @Override
+    public boolean readContent(Long id, ContentHandler handler) {
+        Boolean found = jdbcTemplate.query(
+            SELECT_CONTENT_SQL,
+            rs -> {
+                if (!rs.next()) {
+                    return false;
+                }
+                try (Reader content = PostContentCodec.decodingReader(rs.getCharacterStream(1))) {
+                    handler.handle(content);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            },
+            id
+        );
+        return Boolean.TRUE.equals(found);
+    }
+
+    @Override
+    public boolean writeContent(Long id, Reader content) {
+        // the row is updated behind Hibernate's back: pending changes must not overwrite the new content later
+        entityManager.flush();
+        int updated = jdbcTemplate.update(UPDATE_CONTENT_SQL, ps -> {
+            try {
+                ps.setCharacterStream(
+                    1,
+                    PostContentCodec.encodingReader(content, Boolean.TRUE.equals(properties.getCompress()), properties.getCompressMinLength())
+                );
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            ps.setLong(2, id);
+        });
+        if (updated == 0) {
+            return false;
+        }
+        // without loading it, drop any stale copy of the post from the persistence context and the second-level cache,
+        // the one of the other instances included
+        entityManager.detach(entityManager.getReference(Post.class, id));
+        cacheEvictor.ifPresentOrElse(
+            evictor -> evictor.evictEntity(Post.class.getName(), id),
+            () -> entityManager.getEntityManagerFactory().getCache().evict(Post.class, id)
+        );
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package com.sample.myapp.repository;
+
+import com.sample.myapp.domain.Post;
+
+public interface PostRepositoryWithRelationshipReferences {
+    /**
+     * Replace the mode and the tags of a post, as read from a request, by references managed by the persistence
+     * context. Modes and tags are versioned, so Hibernate would otherwise take the ones sent without a version (only
+     * with their id) for new entities.
+     *
+     * @param post the post to save.
+     * @return the same post.
+     */
+    Post resolveRelationshipReferences(Post post);
+
+    /**
+     * Load the mode and the tags of a saved post that are still references, so that they are returned with their
+     * fields, and not only with their id, once the transaction has ended.
+     *
+     * @param post the saved post.
+     * @return the same post.
+     */
+    Post initializeRelationships(Post post);
+}
@@ -0,0 +1,45 @@
+package com.sample.myapp.repository;
+
+import com.sample.myapp.domain.Mode;
+import com.sample.myapp.domain.Post;
+import com.sample.myapp.domain.Tag;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.HashSet;
+import java.util.Set;
+import org.hibernate.Hibernate;
+
+/**
+ * Resolves the relationships of posts to references, without selecting the modes and tags: a missing mode or tag is
+ * only reported by the foreign key constraint, when the post is flushed.
+ */
+public class PostRepositoryWithRelationshipReferencesImpl implements PostRepositoryWithRelationshipReferences {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Post resolveRelationshipReferences(Post post) {
+        if (post.getMode() != null && post.getMode().getId() != null) {
+            post.setMode(entityManager.getReference(Mode.class, post.getMode().getId()));
+        }
+        if (post.getTags() != null && !post.getTags().isEmpty()) {
+            Set<Tag> tags = new HashSet<>();
+            for (Tag tag : post.getTags()) {
+                tags.add(tag.getId() != null ? entityManager.getReference(Tag.class, tag.getId()) : tag);
+            }
+            post.setTags(tags);
+        }
+        return post;
+    }
+
+    @Override
+    public Post initializeRelationships(Post post) {
+        // modes and tags are cached, so this seldom selects them
+        Hibernate.initialize(post.getMode());
+        if (post.getTags() != null) {
+            post.getTags().forEach(Hibernate::initialize);
+        }
+        return post;
+    }
+}
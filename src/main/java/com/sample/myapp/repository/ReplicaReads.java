@@ -0,0 +1,41 @@
+package com.sample.myapp.repository;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tracks the transactions reading from a read replica, which may lag behind the primary database: what they read must
+ * not be put in the caches, as it could be older than what the caches were just cleared of, see
+ * {@link UserRepository#findOneWithAuthoritiesByLogin(String)}.
+ */
+public final class ReplicaReads {
+
+    private static final Object RESOURCE_KEY = ReplicaReads.class;
+
+    private ReplicaReads() {}
+
+    /**
+     * Record that the current transaction reads from a read replica, until it completes.
+     */
+    public static void markCurrentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || TransactionSynchronizationManager.hasResource(RESOURCE_KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(RESOURCE_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RESOURCE_KEY);
+                }
+            }
+        );
+    }
+
+    /**
+     * @return whether the current transaction reads from a read replica.
+     */
+    public static boolean isCurrentTransactionReadingFromReplica() {
+        return TransactionSynchronizationManager.hasResource(RESOURCE_KEY);
+    }
+}
@@ -0,0 +1,23 @@
+package com.sample.myapp.repository;
+
+import com.sample.myapp.domain.SearchIndexerPause;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the SearchIndexerPause entity.
+ */
+@Repository
+public interface SearchIndexerPauseRepository extends JpaRepository<SearchIndexerPause, Long> {
+    /**
+     * Read the pause with a shared lock, held until the end of the transaction: the pause cannot be updated while a
+     * batch of the outbox is being applied.
+     *
+     * @param id the id of the pause, {@link SearchIndexerPause#ID}.
+     * @return the pause.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<SearchIndexerPause> findForShareById(Long id);
+}
@@ -0,0 +1,46 @@
+package com.sample.myapp.repository;
+
+import com.sample.myapp.domain.SearchOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the SearchOutboxEvent entity.
+ */
+@Repository
+public interface SearchOutboxEventRepository extends JpaRepository<SearchOutboxEvent, Long> {
+    /**
+     * Lock the oldest events, skipping the events locked by another instance of the application.
+     *
+     * @param limit the maximum number of events.
+     * @return the events, oldest first.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    // -2 is Hibernate's LockOptions.SKIP_LOCKED
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select event from SearchOutboxEvent event order by event.id")
+    List<SearchOutboxEvent> findOldestForUpdate(Limit limit);
+
+    /**
+     * Lock the events of some entities, skipping the events locked by another instance of the application.
+     *
+     * @param entityType the type of the entities.
+     * @param entityIds the ids of the entities.
+     * @return the events that could be locked.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select event from SearchOutboxEvent event where event.entityType = :entityType and event.entityId in :entityIds")
+    List<SearchOutboxEvent> findAllForUpdateByEntity(
+        @Param("entityType") String entityType,
+        @Param("entityIds") Collection<Long> entityIds
+    );
+
+    List<SearchOutboxEvent> findAllByEntityTypeAndEntityIdIn(String entityType, Collection<Long> entityIds);
+}
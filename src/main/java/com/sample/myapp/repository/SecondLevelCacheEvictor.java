@@ -0,0 +1,16 @@
+package com.sample.myapp.repository;
+
+/**
+ * Evicts the entities written behind Hibernate's back, with JDBC, from the second-level cache of every instance of the
+ * application; implemented by {@link com.sample.myapp.config.CacheInvalidationBus}.
+ */
+public interface SecondLevelCacheEvictor {
+    /**
+     * Evict an entity from the local cache now, and from the caches of the other instances once the current
+     * transaction has committed.
+     *
+     * @param entityName the name of the entity, its fully qualified class name.
+     * @param id the id of the entity.
+     */
+    void evictEntity(String entityName, Object id);
+}
@@ -1,7 +1,9 @@
 package com.sample.myapp.repository;
 
 import com.sample.myapp.domain.Tag;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +11,7 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface TagRepository extends JpaRepository<Tag, Long> {}
+public interface TagRepository extends JpaRepository<Tag, Long> {
+    @Query("select tag.version from Tag tag where tag.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+}
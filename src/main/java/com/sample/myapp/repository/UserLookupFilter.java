@@ -0,0 +1,364 @@
+package com.sample.myapp.repository;
+
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.domain.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PersistContext;
+import org.hibernate.event.spi.PersistEvent;
+import org.hibernate.event.spi.PersistEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bloom filter over the logins and emails of the users, telling in memory that a login or an email is not used, so
+ * that authentication attempts and registrations with unknown logins and emails do not query the database.
+ * <p>
+ * The filter is built from the database when the application is ready, then rebuilt every
+ * {@code application.user-lookup-filter.rebuild-interval}, which also forgets the logins and emails of deleted users.
+ * In between, the logins and emails of the users are added as they are persisted, before being flushed, and as they
+ * are updated, and the ones written by the other instances are added as
+ * {@link com.sample.myapp.config.CacheInvalidationBus} receives their changes. It may answer that a login or email is
+ * used when it is not, with a probability of about {@code false-positive-probability}, but never the other way around;
+ * until it is first built, or when it is disabled, it always answers that they may be used.
+ * <p>
+ * Unless {@code application.user-lookup-filter.enabled} is set, the filter is enabled along with
+ * {@code application.cache.invalidation}, as it would otherwise miss the users written by the other instances. It is
+ * then suspended, and answers that logins and emails may be used, until the bus listens to the other instances, and
+ * whenever it stops listening. An instance notifies the others in the transaction that writes a user, so a user is
+ * committed if and only if the instances listening are told, and the filter is rebuilt once listening again; the users
+ * are read from the primary database, as a replica may not have them yet. The callers still fall back to the database
+ * when a unique constraint shows the filter was wrong.
+ */
+@Component
+public class UserLookupFilter {
+
+    public static final String LOOKUPS_METER_NAME = "user.lookup.filter";
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserLookupFilter.class);
+
+    // keys are sized for twice the logins and emails there are, so that the filter stays accurate until rebuilt
+    private static final int GROWTH_FACTOR = 2;
+
+    private static final int MIN_EXPECTED_KEYS = 1024;
+
+    private static final String LOGIN = "login:";
+
+    private static final String EMAIL = "email:";
+
+    private final ApplicationProperties.UserLookupFilter properties;
+
+    private final ApplicationProperties.Cache.Invalidation invalidationProperties;
+
+    private final UserRepository userRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter absentCounter;
+
+    private final Counter maybeCounter;
+
+    private volatile Bits bits;
+
+    // while the changes of the other instances are not received
+    private volatile boolean suspended;
+
+    // keys written during the current and the previous rebuild, which the rebuilt filter may not have read
+    private volatile Set<String> writtenKeys = ConcurrentHashMap.newKeySet();
+
+    private volatile Set<String> previouslyWrittenKeys = ConcurrentHashMap.newKeySet();
+
+    public UserLookupFilter(
+        ApplicationProperties applicationProperties,
+        UserRepository userRepository,
+        EntityManagerFactory entityManagerFactory,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.properties = applicationProperties.getUserLookupFilter();
+        this.invalidationProperties = applicationProperties.getCache().getInvalidation();
+        this.suspended = Boolean.TRUE.equals(invalidationProperties.getEnabled());
+        this.userRepository = userRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        // not read-only, so that the users are read from the primary database, not from a replica that may lag
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.absentCounter = Counter.builder(LOOKUPS_METER_NAME)
+            .description("Number of logins and emails looked up in the user lookup filter")
+            .tag("result", "absent")
+            .register(meterRegistry);
+        this.maybeCounter = Counter.builder(LOOKUPS_METER_NAME)
+            .description("Number of logins and emails looked up in the user lookup filter")
+            .tag("result", "maybe")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (isEnabled()) {
+            EventListenerRegistry eventListeners = entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+            UserListener listener = new UserListener();
+            eventListeners.appendListeners(EventType.PERSIST, listener);
+            eventListeners.appendListeners(EventType.POST_UPDATE, listener);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuildQuietly();
+    }
+
+    @Scheduled(
+        initialDelayString = "${application.user-lookup-filter.rebuild-interval:PT10M}",
+        fixedDelayString = "${application.user-lookup-filter.rebuild-interval:PT10M}"
+    )
+    public void rebuildQuietly() {
+        if (isEnabled()) {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                // the previous filter is still used, it only misses the users deleted since
+                LOG.warn("Could not rebuild the user lookup filter: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Build the filter again from the logins and emails of all the users.
+     *
+     * @return the number of users read.
+     */
+    public synchronized long rebuild() {
+        long start = System.nanoTime();
+        previouslyWrittenKeys = writtenKeys;
+        writtenKeys = ConcurrentHashMap.newKeySet();
+        AtomicLong users = new AtomicLong();
+        Bits rebuilt = transactionTemplate.execute(status -> {
+            long expectedKeys = Math.max(2 * userRepository.count() * GROWTH_FACTOR, MIN_EXPECTED_KEYS);
+            Bits filter = Bits.sized(expectedKeys, properties.getFalsePositiveProbability());
+            try (Stream<UserRepository.LoginAndEmail> logins = userRepository.streamAllBy()) {
+                logins.forEach(user -> {
+                    filter.put(key(LOGIN, user.getLogin()));
+                    if (user.getEmail() != null) {
+                        filter.put(key(EMAIL, user.getEmail()));
+                    }
+                    users.incrementAndGet();
+                });
+            }
+            return filter;
+        });
+        bits = rebuilt;
+        // a user written while the filter was rebuilt may have been added to the previous filter only, and a user written
+        // just before, but committed after the users were read, as well
+        previouslyWrittenKeys.forEach(rebuilt::put);
+        writtenKeys.forEach(rebuilt::put);
+        LOG.debug("Rebuilt the user lookup filter of {} users in {} ms", users, (System.nanoTime() - start) / 1_000_000);
+        return users.get();
+    }
+
+    /**
+     * Answer that all the logins and emails may be used, while the changes of the other instances are not received.
+     */
+    public void suspend() {
+        suspended = true;
+    }
+
+    /**
+     * Rebuild the filter, to read the changes of the other instances that may have been missed, and use it again.
+     *
+     * @throws RuntimeException if the filter could not be rebuilt, in which case it stays suspended.
+     */
+    public void resume() {
+        if (isEnabled()) {
+            rebuild();
+        }
+        suspended = false;
+    }
+
+    /**
+     * @param login the login, in any case.
+     * @return {@code false} if no user has this login, {@code true} if one may have.
+     */
+    public boolean mightContainLogin(String login) {
+        return mightContain(LOGIN, login);
+    }
+
+    /**
+     * @param email the email, in any case.
+     * @return {@code false} if no user has this email, {@code true} if one may have.
+     */
+    public boolean mightContainEmail(String email) {
+        return mightContain(EMAIL, email);
+    }
+
+    /**
+     * Add the login and email of a user, written by another instance of the application.
+     *
+     * @param userId the id of the user.
+     */
+    public void add(Long userId) {
+        if (isEnabled()) {
+            transactionTemplate.executeWithoutResult(status ->
+                userRepository.findById(userId).ifPresent(user -> add(user.getLogin(), user.getEmail()))
+            );
+        }
+    }
+
+    /**
+     * Add the login and email of a user, written by this instance, or found to be used in the database.
+     *
+     * @param login the login, in any case.
+     * @param email the email, in any case.
+     */
+    public void add(String login, String email) {
+        put(key(LOGIN, login));
+        put(key(EMAIL, email));
+    }
+
+    private void put(String key) {
+        if (key == null) {
+            return;
+        }
+        // recorded before being added, so that a rebuild that does not see it in the filter sees it in the set
+        writtenKeys.add(key);
+        Bits current = bits;
+        if (current != null) {
+            current.put(key);
+        }
+    }
+
+    private boolean mightContain(String prefix, String value) {
+        Bits current = bits;
+        if (current == null || value == null || suspended || !isEnabled()) {
+            return true;
+        }
+        boolean maybe = current.mightContain(key(prefix, value));
+        (maybe ? maybeCounter : absentCounter).increment();
+        return maybe;
+    }
+
+    private boolean isEnabled() {
+        Boolean enabled = properties.getEnabled();
+        return Boolean.TRUE.equals(enabled != null ? enabled : invalidationProperties.getEnabled());
+    }
+
+    private static String key(String prefix, String value) {
+        return value == null ? null : prefix + value.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * The bits of a Bloom filter, set and read without locks; the hashes of a key are derived from two 64-bit hashes.
+     */
+    static final class Bits {
+
+        private final AtomicLongArray words;
+
+        private final long size;
+
+        private final int hashes;
+
+        private Bits(long size, int hashes) {
+            this.words = new AtomicLongArray(Math.toIntExact((size + 63) / 64));
+            this.size = size;
+            this.hashes = hashes;
+        }
+
+        static Bits sized(long expectedKeys, double falsePositiveProbability) {
+            double ln2 = Math.log(2);
+            long size = Math.max(64, (long) Math.ceil((-expectedKeys * Math.log(falsePositiveProbability)) / (ln2 * ln2)));
+            int hashes = Math.max(1, (int) Math.round(((double) size / expectedKeys) * ln2));
+            return new Bits(size, hashes);
+        }
+
+        void put(String key) {
+            long[] hash = hash(key);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(hash[0] + i * hash[1], size);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value;
+                do {
+                    value = words.get(word);
+                } while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask));
+            }
+        }
+
+        boolean mightContain(String key) {
+            long[] hash = hash(key);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(hash[0] + i * hash[1], size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long[] hash(String key) {
+            // FNV-1a, then mixed twice into independent hashes
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+            }
+            return new long[] { mix(hash), mix(hash ^ 0x9e3779b97f4a7c15L) | 1 };
+        }
+
+        private static long mix(long hash) {
+            hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+            hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+            return hash ^ (hash >>> 31);
+        }
+    }
+
+    private final class UserListener implements PersistEventListener, PostUpdateEventListener {
+
+        @Override
+        public void onPersist(PersistEvent event) {
+            if (event.getObject() instanceof User user) {
+                add(user.getLogin(), user.getEmail());
+            }
+        }
+
+        @Override
+        public void onPersist(PersistEvent event, PersistContext createdAlready) {
+            onPersist(event);
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (event.getEntity() instanceof User user) {
+                add(user.getLogin(), user.getEmail());
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package com.sample.myapp.repository;
 
 import com.sample.myapp.domain.User;
+import jakarta.persistence.QueryHint;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -24,13 +28,29 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneByEmailIgnoreCase(String email);
     Optional<User> findOneByLogin(String login);
 
+    // users read from a lagging replica could bring back a password or an activation the caches were just cleared of
+    String NOT_CACHEABLE = "#result == null or T(com.sample.myapp.repository.ReplicaReads).isCurrentTransactionReadingFromReplica()";
+
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE, unless = "#result == null")
+    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE, unless = NOT_CACHEABLE)
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, unless = "#result == null")
+    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, unless = NOT_CACHEABLE)
     Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+
+    /**
+     * Read the login and email of all the users, without loading the users; the stream must be read in a transaction,
+     * and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<LoginAndEmail> streamAllBy();
+
+    interface LoginAndEmail {
+        String getLogin();
+
+        String getEmail();
+    }
 }
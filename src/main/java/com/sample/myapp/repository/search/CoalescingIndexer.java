@@ -0,0 +1,391 @@
+package com.sample.myapp.repository.search;
+
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.domain.SearchIndexerPause;
+import com.sample.myapp.domain.SearchOutboxEvent;
+import com.sample.myapp.repository.SearchIndexerPauseRepository;
+import com.sample.myapp.repository.SearchOutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Indexing pipeline shared by the search repositories, built on a transactional outbox.
+ * <p>
+ * A change to an indexed entity is recorded as a {@link SearchOutboxEvent}, in the transaction that made it, so that
+ * it is kept if and only if the change is committed; Elasticsearch is not called while the request is processed. The
+ * outbox is drained every {@code application.search-indexer.flush-interval}, or as soon as {@code batch-size} changes
+ * have been committed: the events are taken by batches, oldest first, the changes to the same entity are coalesced,
+ * the entities of each type are read with one query, and sent with one Elasticsearch bulk request. An entity that no
+ * longer exists is removed from the index. The events of a batch are only deleted once Elasticsearch has accepted it:
+ * when Elasticsearch is down, they pile up in the outbox, and are replayed once it is back. Instances of the
+ * application drain the outbox concurrently, each skipping the events locked by the others, and the entities of which
+ * another instance holds an event: an entity is indexed by one instance at a time, and always from its current state,
+ * whatever the order in which its changes were committed.
+ * <p>
+ * The outbox can be paused on every instance at once, during a reindex, with the {@link SearchIndexerPause} row: each
+ * batch reads it with a shared lock first, and is not applied while the pause lasts. The pause is a lease, of
+ * {@code pause-lease}, so that the outbox is applied again if the instance which paused it dies.
+ * <p>
+ * With the {@code lucene} profile, the changes are applied to the {@link LuceneSearchIndex} too, after Elasticsearch.
+ * The cached results of the indices written to are then invalidated, see {@link SearchResultCache}.
+ * <p>
+ * When {@code flush-interval} is zero, entities are indexed right away, within the transaction that changed them, as
+ * the tests expect.
+ */
+@Component
+public class CoalescingIndexer {
+
+    public static final String PENDING_METER_NAME = "search.indexer.pending";
+
+    public static final String FLUSH_METER_NAME = "search.indexer.flush";
+
+    public static final String DOCUMENTS_METER_NAME = "search.indexer.documents";
+
+    public static final String FAILURES_METER_NAME = "search.indexer.failures";
+
+    private static final Logger LOG = LoggerFactory.getLogger(CoalescingIndexer.class);
+
+    private final ApplicationProperties.SearchIndexer properties;
+
+    private final ElasticsearchTemplate elasticsearchTemplate;
+
+    private final SearchOutboxEventRepository outboxRepository;
+
+    private final SearchIndexerPauseRepository pauseRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final SearchResultCache searchResultCache;
+
+    private final Optional<LuceneSearchIndex> localIndex;
+
+    private final Map<String, Loader<?>> loaders = new ConcurrentHashMap<>();
+
+    private final Timer flushTimer;
+
+    private final Counter failuresCounter;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicInteger committedChanges = new AtomicInteger();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // the end of the pause requested by this instance
+    private volatile Instant pausedUntil;
+
+    private ScheduledExecutorService flusher;
+
+    public CoalescingIndexer(
+        ApplicationProperties applicationProperties,
+        ElasticsearchTemplate elasticsearchTemplate,
+        SearchOutboxEventRepository outboxRepository,
+        SearchIndexerPauseRepository pauseRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        SearchResultCache searchResultCache,
+        Optional<LuceneSearchIndex> localIndex
+    ) {
+        this.properties = applicationProperties.getSearchIndexer();
+        this.elasticsearchTemplate = elasticsearchTemplate;
+        this.outboxRepository = outboxRepository;
+        this.pauseRepository = pauseRepository;
+        // not read-only, so that the entities are read from the primary database, not from a replica that may lag
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.searchResultCache = searchResultCache;
+        this.localIndex = localIndex;
+        this.flushTimer = Timer.builder(FLUSH_METER_NAME)
+            .description("Time taken to apply a batch of the search outbox")
+            .register(meterRegistry);
+        this.failuresCounter = Counter.builder(FAILURES_METER_NAME)
+            .description("Number of search outbox batches that could not be applied")
+            .register(meterRegistry);
+        Gauge.builder(PENDING_METER_NAME, pending, AtomicLong::get)
+            .description("Number of changes left in the search outbox after the last flush")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (isBuffered()) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("search-indexer-");
+            threadFactory.setDaemon(true);
+            flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            long interval = properties.getFlushInterval().toMillis();
+            // the first flush replays the changes left by a previous run
+            flusher.scheduleWithFixedDelay(this::flushQuietly, 0, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+    }
+
+    /**
+     * Register how to read the entities of a type.
+     *
+     * @param type the type of the entities.
+     * @param loader reads the entities with the given ids, with the relationships they are indexed with.
+     * @param idGetter gives the id of an entity.
+     */
+    public <T> void register(Class<T> type, Function<Collection<Long>, ? extends Collection<T>> loader, Function<T, Long> idGetter) {
+        loaders.put(type.getSimpleName(), new Loader<>(type, loader, idGetter));
+    }
+
+    /**
+     * @return the types of the entities that are indexed.
+     */
+    public List<Class<?>> getIndexedTypes() {
+        return loaders.values().stream().<Class<?>>map(Loader::type).toList();
+    }
+
+    /**
+     * Read entities as they are indexed.
+     *
+     * @param type the type of the entities.
+     * @param ids the ids of the entities.
+     * @return the entities that exist.
+     */
+    public <T> List<T> load(Class<T> type, Collection<Long> ids) {
+        Loader<?> loader = loaders.get(type.getSimpleName());
+        if (loader == null) {
+            throw new IllegalStateException("No loader registered for " + type.getSimpleName());
+        }
+        return loader.loader().apply(ids).stream().map(type::cast).toList();
+    }
+
+    /**
+     * Stop applying the outbox on every instance, once the batches in progress are over: the changes are kept in the
+     * outbox until {@link #resume()} is called, or until the pause lease expires.
+     */
+    public void pause() {
+        writePause(Instant.now().plus(properties.getPauseLease()));
+    }
+
+    /**
+     * Extend the pause requested by this instance, once half of its lease has elapsed.
+     */
+    public void renewPause() {
+        Instant until = pausedUntil;
+        if (until != null && Instant.now().isAfter(until.minus(properties.getPauseLease().dividedBy(2)))) {
+            pause();
+        }
+    }
+
+    /**
+     * Apply the outbox again on every instance, starting with the changes recorded while it was paused.
+     */
+    public void resume() {
+        writePause(null);
+        if (flusher != null && !flusher.isShutdown()) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Record that an entity was created, updated or deleted, so that its document is made to match it once the current
+     * transaction has committed.
+     *
+     * @param type the type of the entity.
+     * @param id the id of the entity.
+     */
+    public void synchronize(Class<?> type, Long id) {
+        if (!isBuffered()) {
+            transactionTemplate.executeWithoutResult(status -> write(Map.of(type.getSimpleName(), Set.of(id))));
+            return;
+        }
+        outboxRepository.save(new SearchOutboxEvent().entityType(type.getSimpleName()).entityId(id).createdDate(Instant.now()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        changeCommitted();
+                    }
+                }
+            );
+        } else {
+            changeCommitted();
+        }
+    }
+
+    private void writePause(Instant until) {
+        // the update waits for the batches holding a shared lock on the pause, on every instance
+        transactionTemplate.executeWithoutResult(status ->
+            pauseRepository.save(new SearchIndexerPause().id(SearchIndexerPause.ID).pausedUntil(until))
+        );
+        pausedUntil = until;
+    }
+
+    private boolean isBuffered() {
+        return !properties.getFlushInterval().isZero() && !properties.getFlushInterval().isNegative();
+    }
+
+    private void changeCommitted() {
+        if (committedChanges.incrementAndGet() == properties.getBatchSize() && flusher != null && !flusher.isShutdown()) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Apply the changes of the outbox now, batch by batch, until it is empty.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            committedChanges.set(0);
+            int applied;
+            do {
+                applied = flushTimer.record(() -> transactionTemplate.execute(status -> applyBatch()));
+            } while (applied >= properties.getBatchSize());
+            pending.set(outboxRepository.count());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            failuresCounter.increment();
+            LOG.warn("Could not apply the search outbox, it will be retried: {}", e.getMessage());
+        }
+    }
+
+    private int applyBatch() {
+        if (isPaused()) {
+            return 0;
+        }
+        List<SearchOutboxEvent> events = outboxRepository.findOldestForUpdate(Limit.of(properties.getBatchSize()));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        Map<String, Set<Long>> changes = new LinkedHashMap<>();
+        for (SearchOutboxEvent event : events) {
+            changes.computeIfAbsent(event.getEntityType(), type -> new HashSet<>()).add(event.getEntityId());
+        }
+        List<SearchOutboxEvent> applied = new ArrayList<>();
+        changes.forEach((type, ids) -> applied.addAll(lockEntities(type, ids)));
+        write(changes);
+        outboxRepository.deleteAllInBatch(applied);
+        return applied.size();
+    }
+
+    private boolean isPaused() {
+        return pauseRepository.findForShareById(SearchIndexerPause.ID).filter(pause -> pause.isPausedAt(Instant.now())).isPresent();
+    }
+
+    /**
+     * Lock all the events of the entities of a batch, so that each entity is indexed by one instance at a time: two
+     * instances indexing the same entity could otherwise send its versions to Elasticsearch in the wrong order. The
+     * entities with an event locked by another instance are left to it, and removed from the batch.
+     *
+     * @return the events of the entities left in the batch.
+     */
+    private List<SearchOutboxEvent> lockEntities(String type, Set<Long> ids) {
+        List<SearchOutboxEvent> locked = outboxRepository.findAllForUpdateByEntity(type, ids);
+        Set<Long> lockedEventIds = new HashSet<>();
+        locked.forEach(event -> lockedEventIds.add(event.getId()));
+        for (SearchOutboxEvent event : outboxRepository.findAllByEntityTypeAndEntityIdIn(type, ids)) {
+            if (!lockedEventIds.contains(event.getId())) {
+                ids.remove(event.getEntityId());
+            }
+        }
+        return locked.stream().filter(event -> ids.contains(event.getEntityId())).toList();
+    }
+
+    private void write(Map<String, Set<Long>> changes) {
+        changes.forEach((type, ids) -> {
+            if (ids.isEmpty()) {
+                return;
+            }
+            Loader<?> loader = loaders.get(type);
+            if (loader == null) {
+                throw new IllegalStateException("No loader registered for " + type);
+            }
+            Set<Long> missing = save(loader, ids);
+            if (!missing.isEmpty()) {
+                delete(loader.type(), missing);
+            }
+        });
+    }
+
+    private <T> Set<Long> save(Loader<T> loader, Set<Long> ids) {
+        List<T> entities = new ArrayList<>(loader.loader().apply(ids));
+        if (!entities.isEmpty()) {
+            elasticsearchTemplate.save(entities);
+            localIndex.filter(local -> local.isRegistered(loader.type())).ifPresent(local -> local.index(loader.type(), entities));
+            searchResultCache.invalidate(loader.type());
+            countDocuments(loader.type(), "index", entities.size());
+        }
+        Set<Long> missing = new HashSet<>(ids);
+        entities.forEach(entity -> missing.remove(loader.idGetter().apply(entity)));
+        return missing;
+    }
+
+    private void delete(Class<?> type, Set<Long> ids) {
+        String index = elasticsearchTemplate.getIndexCoordinatesFor(type).getIndexName();
+        BulkResponse response = elasticsearchTemplate.execute(client ->
+            client.bulk(bulk -> {
+                ids.forEach(id -> bulk.operations(operation -> operation.delete(delete -> delete.index(index).id(String.valueOf(id)))));
+                return bulk;
+            })
+        );
+        if (response.errors()) {
+            throw new IllegalStateException("Could not delete some " + type.getSimpleName() + " documents from the index");
+        }
+        localIndex.filter(local -> local.isRegistered(type)).ifPresent(local -> local.delete(type, ids));
+        searchResultCache.invalidate(type);
+        countDocuments(type, "delete", ids.size());
+    }
+
+    private void countDocuments(Class<?> type, String operation, int count) {
+        Counter.builder(DOCUMENTS_METER_NAME)
+            .description("Number of documents written by the search indexer")
+            .tag("type", type.getSimpleName())
+            .tag("operation", operation)
+            .register(meterRegistry)
+            .increment(count);
+    }
+
+    private record Loader<T>(Class<T> type, Function<Collection<Long>, ? extends Collection<T>> loader, Function<T, Long> idGetter) {}
+}
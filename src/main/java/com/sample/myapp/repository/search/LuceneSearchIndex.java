@@ -0,0 +1,399 @@
+package com.sample.myapp.repository.search;
+
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.config.Constants;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.MMapDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * In-process search indices, one Lucene index per entity type, memory-mapped from
+ * {@code application.local-search.directory}; only active with the {@code lucene} profile.
+ * <p>
+ * The indices are kept in sync by the {@link CoalescingIndexer}, along with Elasticsearch, and serve the query string
+ * searches of the search repositories that register a {@link Mapping}, without a network round trip. They do not
+ * replace Elasticsearch, which is still required: the other searches, the search cursors, and the other entities are
+ * served by Elasticsearch only. A Lucene
+ * document only holds what is needed to find an entity: the matching entities are then read from the database, in
+ * the order of the hits.
+ * <p>
+ * Queries use the Lucene syntax, as the {@code query_string} queries of Elasticsearch do; without a field, terms are
+ * looked for in the default fields of the mapping. Results can be sorted by relevance, or by the sortable fields of the
+ * mapping; like Elasticsearch, a search does not go past the {@link #MAX_RESULT_WINDOW}th result.
+ * <p>
+ * A reindex builds a new index of the type aside, with a {@link Rebuild}, while the current one is still searched, then
+ * replaces the documents of the current one with it at once.
+ * <p>
+ * The outbox events are applied by whichever instance locks them first, so the indices are only complete with a single
+ * instance of the application: the bean refuses to start when {@code application.cache.invalidation} is enabled, which
+ * is how several instances sharing a database are declared.
+ */
+@Component
+@Profile(Constants.SPRING_PROFILE_LUCENE)
+public class LuceneSearchIndex {
+
+    /**
+     * Maximum offset of the last result of a page, as the default {@code max_result_window} of Elasticsearch.
+     */
+    public static final int MAX_RESULT_WINDOW = 10000;
+
+    static final String ID_FIELD = "id";
+
+    private static final String REBUILD_SUFFIX = ".rebuild";
+
+    private static final Logger LOG = LoggerFactory.getLogger(LuceneSearchIndex.class);
+
+    private final Path directory;
+
+    private final Map<String, TypeIndex<?>> indices = new ConcurrentHashMap<>();
+
+    public LuceneSearchIndex(ApplicationProperties applicationProperties) {
+        if (Boolean.TRUE.equals(applicationProperties.getCache().getInvalidation().getEnabled())) {
+            // each instance would only index the outbox events it happens to lock, and miss the ones of the others
+            throw new IllegalStateException(
+                "The lucene profile only supports a single instance, disable application.cache.invalidation to use it"
+            );
+        }
+        this.directory = Path.of(applicationProperties.getLocalSearch().getDirectory());
+    }
+
+    /**
+     * How the entities of a type are indexed.
+     *
+     * @param idGetter gives the id of an entity.
+     * @param writer adds the searchable fields of an entity to its document.
+     * @param defaultFields the fields a term without a field is looked for in.
+     * @param sortFields the properties that can be sorted on, besides the id, each indexed with a
+     * {@link NumericDocValuesField} of the same name.
+     */
+    public record Mapping<T>(Function<T, Long> idGetter, DocumentWriter<T> writer, List<String> defaultFields, Set<String> sortFields) {}
+
+    /**
+     * Adds the searchable fields of an entity to its document.
+     */
+    @FunctionalInterface
+    public interface DocumentWriter<T> {
+        void write(T entity, Document document);
+    }
+
+    /**
+     * Open the index of a type, creating it if needed.
+     *
+     * @param type the type of the entities.
+     * @param mapping how the entities are indexed.
+     */
+    public <T> void register(Class<T> type, Mapping<T> mapping) {
+        indices.computeIfAbsent(type.getSimpleName(), name -> {
+            try {
+                return new TypeIndex<>(directory.resolve(name.toLowerCase()), mapping);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open the " + name + " search index", e);
+            }
+        });
+    }
+
+    /**
+     * @param type the type of the entities.
+     * @return whether the entities of the type are indexed.
+     */
+    public boolean isRegistered(Class<?> type) {
+        return indices.containsKey(type.getSimpleName());
+    }
+
+    /**
+     * Add or replace the documents of entities, and make them searchable.
+     *
+     * @param type the type of the entities.
+     * @param entities the entities, with their indexed relationships loaded.
+     */
+    public <T> void index(Class<T> type, Collection<? extends T> entities) {
+        TypeIndex<T> index = typeIndex(type);
+        try {
+            synchronized (index) {
+                index.update(index.writer, entities);
+                index.commit();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not index " + type.getSimpleName() + " entities", e);
+        }
+    }
+
+    /**
+     * Remove the documents of entities.
+     *
+     * @param type the type of the entities.
+     * @param ids the ids of the entities.
+     */
+    public void delete(Class<?> type, Collection<Long> ids) {
+        TypeIndex<?> index = typeIndex(type);
+        try {
+            synchronized (index) {
+                index.writer.deleteDocuments(ids.stream().map(id -> new Term(ID_FIELD, String.valueOf(id))).toArray(Term[]::new));
+                index.commit();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete " + type.getSimpleName() + " entities from the index", e);
+        }
+    }
+
+    /**
+     * Start rebuilding the index of a type, in a directory beside it: searches keep using the current index until
+     * {@link Rebuild#replace()} is called.
+     *
+     * @param type the type of the entities.
+     * @return the rebuild, to be closed.
+     */
+    public <T> Rebuild<T> rebuild(Class<T> type) {
+        TypeIndex<T> index = typeIndex(type);
+        Path path = directory.resolve(type.getSimpleName().toLowerCase() + REBUILD_SUFFIX);
+        try {
+            // left by a rebuild that did not complete
+            FileSystemUtils.deleteRecursively(path);
+            return new Rebuild<>(type, index, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start rebuilding the " + type.getSimpleName() + " index", e);
+        }
+    }
+
+    /**
+     * Search for entities.
+     *
+     * @param type the type of the entities.
+     * @param query the query, in the Lucene syntax.
+     * @param pageable the pagination information; sorts on other properties than the sortable fields are ignored.
+     * @param loader reads the entities with the given ids.
+     * @return the page of entities, in the order of the hits.
+     * @throws InvalidDataAccessApiUsageException if the query cannot be parsed, or if the page goes past
+     * {@link #MAX_RESULT_WINDOW}.
+     */
+    public <T> Page<T> search(Class<T> type, String query, Pageable pageable, Function<List<Long>, ? extends Collection<T>> loader) {
+        TypeIndex<T> index = typeIndex(type);
+        Query luceneQuery = index.parse(query);
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_RESULT_WINDOW) {
+            throw new InvalidDataAccessApiUsageException("Page too deep, a search cannot go past result " + MAX_RESULT_WINDOW);
+        }
+        List<Long> ids = new ArrayList<>();
+        long total;
+        try {
+            IndexSearcher searcher = index.searcherManager.acquire();
+            try {
+                int end = (int) (pageable.getOffset() + pageable.getPageSize());
+                Sort sort = index.sort(pageable);
+                TopDocs topDocs = sort != null ? searcher.search(luceneQuery, end, sort) : searcher.search(luceneQuery, end);
+                ScoreDoc[] hits = topDocs.scoreDocs;
+                for (int i = (int) pageable.getOffset(); i < hits.length; i++) {
+                    ids.add(searcher.storedFields().document(hits[i].doc).getField(ID_FIELD).numericValue().longValue());
+                }
+                total = searcher.count(luceneQuery);
+            } finally {
+                index.searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not search the " + type.getSimpleName() + " index", e);
+        }
+        Map<Long, T> entities = new HashMap<>();
+        loader.apply(ids).forEach(entity -> entities.put(index.mapping.idGetter().apply(entity), entity));
+        // an entity deleted since it was indexed is left out
+        List<T> content = ids.stream().map(entities::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> TypeIndex<T> typeIndex(Class<T> type) {
+        TypeIndex<?> index = indices.get(type.getSimpleName());
+        if (index == null) {
+            throw new IllegalStateException("No search index registered for " + type.getSimpleName());
+        }
+        return (TypeIndex<T>) index;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (TypeIndex<?> index : indices.values()) {
+            index.searcherManager.close();
+            index.writer.close();
+            index.store.close();
+        }
+    }
+
+    /**
+     * The rebuild of the index of a type, written in a directory of its own.
+     */
+    public static final class Rebuild<T> implements AutoCloseable {
+
+        private final Class<T> type;
+
+        private final TypeIndex<T> index;
+
+        private final Path path;
+
+        private final MMapDirectory store;
+
+        private final IndexWriter writer;
+
+        private Rebuild(Class<T> type, TypeIndex<T> index, Path path) throws IOException {
+            this.type = type;
+            this.index = index;
+            this.path = path;
+            this.store = new MMapDirectory(path);
+            this.writer = new IndexWriter(store, new IndexWriterConfig(new StandardAnalyzer()));
+        }
+
+        /**
+         * @return the type of the entities.
+         */
+        public Class<T> type() {
+            return type;
+        }
+
+        /**
+         * Add the documents of entities to the new index; they are not searchable until it replaces the current one.
+         *
+         * @param entities the entities, with their indexed relationships loaded.
+         */
+        public void index(Collection<? extends T> entities) {
+            try {
+                index.update(writer, entities);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not index " + type.getSimpleName() + " entities", e);
+            }
+        }
+
+        /**
+         * Replace the documents of the current index with the ones of the new index, in a single commit: searches see
+         * either all the previous documents, or all the new ones.
+         */
+        public void replace() {
+            try {
+                // the new index is locked while it is added
+                writer.close();
+                synchronized (index) {
+                    index.writer.deleteAll();
+                    index.writer.addIndexes(store);
+                    index.commit();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not replace the " + type.getSimpleName() + " index", e);
+            }
+        }
+
+        /**
+         * Delete the new index, once it has replaced the current one, or if the rebuild failed.
+         */
+        @Override
+        public void close() {
+            try {
+                writer.close();
+                store.close();
+                FileSystemUtils.deleteRecursively(path);
+            } catch (IOException e) {
+                LOG.warn("Could not delete {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    private static final class TypeIndex<T> {
+
+        private final Mapping<T> mapping;
+
+        private final MMapDirectory store;
+
+        private final IndexWriter writer;
+
+        private final SearcherManager searcherManager;
+
+        private TypeIndex(Path path, Mapping<T> mapping) throws IOException {
+            this.mapping = mapping;
+            this.store = new MMapDirectory(path);
+            this.writer = new IndexWriter(store, new IndexWriterConfig(new StandardAnalyzer()));
+            // make the index exist on disk, so that it can be searched before anything is indexed
+            this.writer.commit();
+            this.searcherManager = new SearcherManager(writer, null);
+        }
+
+        private Document document(T entity) {
+            long id = mapping.idGetter().apply(entity);
+            Document document = new Document();
+            document.add(new StringField(ID_FIELD, String.valueOf(id), Field.Store.NO));
+            document.add(new StoredField(ID_FIELD, id));
+            document.add(new NumericDocValuesField(ID_FIELD, id));
+            mapping.writer().write(entity, document);
+            return document;
+        }
+
+        private void update(IndexWriter target, Collection<? extends T> entities) throws IOException {
+            for (T entity : entities) {
+                target.updateDocument(new Term(ID_FIELD, String.valueOf(mapping.idGetter().apply(entity))), document(entity));
+            }
+        }
+
+        private void commit() throws IOException {
+            // durable before the outbox events are deleted, and visible to the next searches
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+        }
+
+        private Query parse(String query) {
+            QueryParser parser = new MultiFieldQueryParser(mapping.defaultFields().toArray(String[]::new), writer.getAnalyzer());
+            try {
+                return parser.parse(query);
+            } catch (ParseException e) {
+                throw new InvalidDataAccessApiUsageException("Invalid query: " + query, e);
+            }
+        }
+
+        private Sort sort(Pageable pageable) {
+            List<SortField> sortFields = pageable
+                .getSort()
+                .stream()
+                .filter(order -> ID_FIELD.equals(order.getProperty()) || mapping.sortFields().contains(order.getProperty()))
+                .map(order -> new SortField(order.getProperty(), SortField.Type.LONG, order.isDescending()))
+                .toList();
+            if (sortFields.isEmpty()) {
+                return null;
+            }
+            List<SortField> withScore = new ArrayList<>(sortFields);
+            withScore.add(SortField.FIELD_SCORE);
+            return new Sort(withScore.toArray(SortField[]::new));
+        }
+    }
+}
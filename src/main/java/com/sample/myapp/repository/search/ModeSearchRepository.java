@@ -3,13 +3,16 @@ package com.sample.myapp.repository.search;
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
 import com.sample.myapp.domain.Mode;
 import com.sample.myapp.repository.ModeRepository;
-import java.util.stream.Stream;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Mode} entity.
@@ -17,45 +20,67 @@ import org.springframework.scheduling.annotation.Async;
 public interface ModeSearchRepository extends ElasticsearchRepository<Mode, Long>, ModeSearchRepositoryInternal {}
 
 interface ModeSearchRepositoryInternal {
-    Stream<Mode> search(String query);
+    Page<Mode> search(String query, Pageable pageable);
 
-    Stream<Mode> search(Query query);
+    Page<Mode> search(Query query);
 
-    @Async
+    /**
+     * Search for modes, one slice at a time, at a constant cost whatever the depth of the slice.
+     *
+     * @param query the query string.
+     * @param pointInTimeId the point in time returned with the previous slice, or {@code null} for the first slice.
+     * @param after the sort values returned with the previous slice, or {@code null} for the first slice.
+     * @param size the maximum number of modes in the slice.
+     * @return the slice, sorted by relevance.
+     */
+    SearchSlice<Mode> searchAfter(String query, String pointInTimeId, List<String> after, int size);
+
+    /**
+     * Index a mode once the current transaction has committed, through the outbox of the {@link CoalescingIndexer}.
+     *
+     * @param entity the mode to index, which is read again when the outbox is applied.
+     */
     void index(Mode entity);
 
-    @Async
     void deleteFromIndexById(Long id);
 }
 
 class ModeSearchRepositoryInternalImpl implements ModeSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final ModeRepository repository;
+    private final CoalescingIndexer indexer;
 
-    ModeSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, ModeRepository repository) {
+    ModeSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, ModeRepository repository, CoalescingIndexer indexer) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.indexer = indexer;
+        indexer.register(Mode.class, repository::findAllWithEagerRelationshipsByIdIn, Mode::getId);
     }
 
     @Override
-    public Stream<Mode> search(String query) {
+    public Page<Mode> search(String query, Pageable pageable) {
         NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+        return search(nativeQuery.setPageable(pageable));
+    }
+
+    @Override
+    public Page<Mode> search(Query query) {
+        SearchHits<Mode> searchHits = elasticsearchTemplate.search(query, Mode.class);
+        List<Mode> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
     }
 
     @Override
-    public Stream<Mode> search(Query query) {
-        return elasticsearchTemplate.search(query, Mode.class).map(SearchHit::getContent).stream();
+    public SearchSlice<Mode> searchAfter(String query, String pointInTimeId, List<String> after, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, Mode.class, query, pointInTimeId, after, size);
     }
 
     @Override
     public void index(Mode entity) {
-        repository.findOneWithEagerRelationships(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        indexer.synchronize(Mode.class, entity.getId());
     }
 
     @Override
     public void deleteFromIndexById(Long id) {
-        elasticsearchTemplate.delete(String.valueOf(id), Mode.class);
+        indexer.synchronize(Mode.class, id);
     }
 }
@@ -0,0 +1,75 @@
+package com.sample.myapp.repository.search;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.Query;
+
+/**
+ * Deep pagination of query string searches, shared by the search repositories.
+ * <p>
+ * Unlike {@code from}/{@code size}, whose cost grows with the offset and which stops at {@code max_result_window},
+ * each slice is read with {@code search_after} the sort values of the last document of the previous slice, from a
+ * point in time of the index, so that documents do not move between slices while the index is updated. Documents are
+ * sorted by relevance, and by {@code _shard_doc}, which Elasticsearch adds to the sort of point in time searches.
+ */
+final class PointInTimeSearch {
+
+    /**
+     * How long a point in time is kept after each slice is read.
+     */
+    static final Duration KEEP_ALIVE = Duration.ofMinutes(5);
+
+    private PointInTimeSearch() {}
+
+    static <T> SearchSlice<T> search(
+        ElasticsearchTemplate elasticsearchTemplate,
+        Class<T> type,
+        String query,
+        String pointInTimeId,
+        List<String> after,
+        int size
+    ) {
+        String pit = pointInTimeId != null
+            ? pointInTimeId
+            : elasticsearchTemplate.openPointInTime(elasticsearchTemplate.getIndexCoordinatesFor(type), KEEP_ALIVE, false);
+        NativeQueryBuilder builder = NativeQuery.builder()
+            .withQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery())
+            .withPointInTime(new Query.PointInTime(pit, KEEP_ALIVE))
+            .withSort(Sort.by(Sort.Order.desc("_score")))
+            // read one extra document to know whether there is a next slice
+            .withPageable(PageRequest.of(0, size + 1))
+            .withTrackTotalHits(false);
+        if (after != null) {
+            builder.withSearchAfter(after.stream().map(PointInTimeSearch::parseSortValue).toList());
+        }
+        SearchHits<T> searchHits = elasticsearchTemplate.search(builder.build(), type);
+        String nextPit = searchHits.getPointInTimeId() != null ? searchHits.getPointInTimeId() : pit;
+        List<SearchHit<T>> hits = searchHits.getSearchHits();
+        if (hits.size() <= size) {
+            elasticsearchTemplate.closePointInTime(nextPit);
+            return new SearchSlice<>(hits.stream().map(SearchHit::getContent).toList(), nextPit, null);
+        }
+        List<SearchHit<T>> slice = hits.subList(0, size);
+        List<String> nextSortValues = slice.get(size - 1).getSortValues().stream().map(String::valueOf).toList();
+        return new SearchSlice<>(slice.stream().map(SearchHit::getContent).toList(), nextPit, nextSortValues);
+    }
+
+    /**
+     * Sort values are a relevance score, which is a floating point number, and a {@code _shard_doc}, which is a long.
+     */
+    private static Object parseSortValue(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return Double.valueOf(value);
+        }
+    }
+}
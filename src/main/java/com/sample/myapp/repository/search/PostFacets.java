@@ -0,0 +1,12 @@
+package com.sample.myapp.repository.search;
+
+import java.util.Map;
+
+/**
+ * Number of posts matching a search, by tag, by mode and by month of posting.
+ *
+ * @param tags the number of posts of the most frequent tags, by tag name, most frequent first.
+ * @param modes the number of posts of the most frequent modes, by mode name, most frequent first.
+ * @param months the number of posts by month of posting, formatted as {@code yyyy-MM}, oldest first.
+ */
+public record PostFacets(Map<String, Long> tags, Map<String, Long> modes, Map<String, Long> months) {}
@@ -0,0 +1,18 @@
+package com.sample.myapp.repository.search;
+
+import java.util.List;
+
+/**
+ * Criteria of a structured post search.
+ * <p>
+ * {@code title} and {@code content} are full-text terms, which rank the posts by relevance; the other criteria only
+ * filter the posts, and are cached by Elasticsearch. Every criterion is optional.
+ *
+ * @param title terms to look for in the title.
+ * @param content terms to look for in the content.
+ * @param tags names of tags the posts must all have.
+ * @param mode name of the mode of the posts.
+ * @param from the oldest date of the posts, included: an ISO-8601 instant or date math such as {@code now-7d/d}.
+ * @param to the newest date of the posts, excluded: an ISO-8601 instant or date math such as {@code now/d}.
+ */
+public record PostSearchFilter(String title, String content, List<String> tags, String mode, String from, String to) {}
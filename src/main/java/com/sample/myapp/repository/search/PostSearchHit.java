@@ -0,0 +1,14 @@
+package com.sample.myapp.repository.search;
+
+import com.sample.myapp.domain.Post;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A post matching a search, without its content, with highlighted fragments of the fields matching the search.
+ *
+ * @param post the post, whose content is not set.
+ * @param highlights the fragments of the matching fields, by field name; terms matching the search are wrapped in
+ * {@code <em>} tags, and the rest of the text is HTML-escaped.
+ */
+public record PostSearchHit(Post post, Map<String, List<String>> highlights) {}
@@ -1,19 +1,42 @@
 package com.sample.myapp.repository.search;
 
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.CalendarInterval;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.MatchQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
 import com.sample.myapp.domain.Post;
 import com.sample.myapp.repository.PostRepository;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.TextField;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilterBuilder;
+import org.springframework.data.elasticsearch.core.query.HighlightQuery;
 import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.core.query.highlight.Highlight;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightField;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightFieldParameters;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightParameters;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Post} entity.
@@ -21,29 +44,143 @@ import org.springframework.scheduling.annotation.Async;
 public interface PostSearchRepository extends ElasticsearchRepository<Post, Long>, PostSearchRepositoryInternal {}
 
 interface PostSearchRepositoryInternal {
+    /**
+     * Search for posts with a query string; the results are cached until the index is written to, see
+     * {@link SearchResultCache}.
+     *
+     * @param query the query string.
+     * @param pageable the pagination information.
+     * @return the page of posts.
+     */
     Page<Post> search(String query, Pageable pageable);
 
     Page<Post> search(Query query);
 
-    @Async
+    /**
+     * Search for posts without reading their content, which is replaced by highlighted fragments.
+     *
+     * @param query the query string.
+     * @param pageable the pagination information.
+     * @return the page of posts, with the highlighted fragments of their title and content.
+     */
+    Page<PostSearchHit> searchHighlighted(String query, Pageable pageable);
+
+    /**
+     * Search for posts with structured criteria: full-text terms are scored, while tags, mode and dates are applied in
+     * filter context, without scoring, so that Elasticsearch can cache them.
+     *
+     * @param filter the criteria of the search.
+     * @param pageable the pagination information; without sort, posts are sorted by relevance when full-text terms are
+     * given, newest first otherwise.
+     * @return the page of posts.
+     */
+    Page<Post> search(PostSearchFilter filter, Pageable pageable);
+
+    /**
+     * Search for posts with structured criteria, like {@link #search(PostSearchFilter, Pageable)}, and count the
+     * matching posts by tag, mode and month, in the same request.
+     *
+     * @param filter the criteria of the search.
+     * @param pageable the pagination information.
+     * @return the page of posts, with the facets of the search.
+     */
+    PostSearchResult searchWithFacets(PostSearchFilter filter, Pageable pageable);
+
+    /**
+     * Search for posts, one slice at a time, at a constant cost whatever the depth of the slice.
+     *
+     * @param query the query string.
+     * @param pointInTimeId the point in time returned with the previous slice, or {@code null} for the first slice.
+     * @param after the sort values returned with the previous slice, or {@code null} for the first slice.
+     * @param size the maximum number of posts in the slice.
+     * @return the slice, sorted by relevance.
+     */
+    SearchSlice<Post> searchAfter(String query, String pointInTimeId, List<String> after, int size);
+
+    /**
+     * Index a post once the current transaction has committed, through the outbox of the {@link CoalescingIndexer}.
+     *
+     * @param entity the post to index, which is read again when the outbox is applied.
+     */
     void index(Post entity);
 
-    @Async
     void deleteFromIndexById(Long id);
 }
 
 class PostSearchRepositoryInternalImpl implements PostSearchRepositoryInternal {
 
+    private static final String TAGS_FACET = "tags";
+
+    private static final String MODES_FACET = "modes";
+
+    private static final String MONTHS_FACET = "months";
+
+    private static final int FACET_SIZE = 10;
+
+    private static final int HIGHLIGHT_FRAGMENT_SIZE = 150;
+
+    private static final int HIGHLIGHT_FRAGMENTS = 3;
+
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final PostRepository repository;
+    private final CoalescingIndexer indexer;
+    private final SearchResultCache searchResultCache;
+
+    private final Optional<LuceneSearchIndex> localIndex;
 
-    PostSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, PostRepository repository) {
+    PostSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        PostRepository repository,
+        CoalescingIndexer indexer,
+        SearchResultCache searchResultCache,
+        Optional<LuceneSearchIndex> localIndex
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.indexer = indexer;
+        this.searchResultCache = searchResultCache;
+        this.localIndex = localIndex;
+        indexer.register(Post.class, repository::findAllWithEagerRelationshipsByIdIn, Post::getId);
+        localIndex.ifPresent(index ->
+            index.register(
+                Post.class,
+                new LuceneSearchIndex.Mapping<>(
+                    Post::getId,
+                    PostSearchRepositoryInternalImpl::writeDocument,
+                    List.of("title", "content", "tags.name", "mode.name"),
+                    Set.of("date")
+                )
+            )
+        );
+    }
+
+    private static void writeDocument(Post post, Document document) {
+        if (post.getTitle() != null) {
+            document.add(new TextField("title", post.getTitle(), Field.Store.NO));
+        }
+        if (post.getContent() != null) {
+            document.add(new TextField("content", post.getContent(), Field.Store.NO));
+        }
+        if (post.getDate() != null) {
+            document.add(new NumericDocValuesField("date", post.getDate().toEpochMilli()));
+        }
+        if (post.getMode() != null && post.getMode().getName() != null) {
+            document.add(new TextField("mode.name", post.getMode().getName(), Field.Store.NO));
+        }
+        post
+            .getTags()
+            .stream()
+            .filter(tag -> tag.getName() != null)
+            .forEach(tag -> document.add(new TextField("tags.name", tag.getName(), Field.Store.NO)));
     }
 
     @Override
     public Page<Post> search(String query, Pageable pageable) {
+        return searchResultCache.get(Post.class, query, pageable, () -> searchUncached(query, pageable));
+    }
+
+    private Page<Post> searchUncached(String query, Pageable pageable) {
+        if (localIndex.isPresent()) {
+            return localIndex.get().search(Post.class, query, pageable, ids -> indexer.load(Post.class, ids));
+        }
         NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
         return search(nativeQuery.setPageable(pageable));
     }
@@ -55,13 +192,127 @@ class PostSearchRepositoryInternalImpl implements PostSearchRepositoryInternal {
         return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
     }
 
+    @Override
+    public Page<PostSearchHit> searchHighlighted(String query, Pageable pageable) {
+        HighlightParameters parameters = HighlightParameters.builder()
+            .withEncoder("html")
+            .withPreTags("<em>")
+            .withPostTags("</em>")
+            .withFragmentSize(HIGHLIGHT_FRAGMENT_SIZE)
+            .withNumberOfFragments(HIGHLIGHT_FRAGMENTS)
+            .build();
+        HighlightField content = new HighlightField(
+            "content",
+            // start of the content, for the posts that only match by another field
+            HighlightFieldParameters.builder().withNoMatchSize(HIGHLIGHT_FRAGMENT_SIZE).build()
+        );
+        Highlight highlight = new Highlight(parameters, List.of(new HighlightField("title"), content));
+        NativeQuery nativeQuery = NativeQuery.builder()
+            .withQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery())
+            .withSourceFilter(new FetchSourceFilterBuilder().withExcludes("content").build())
+            .withHighlightQuery(new HighlightQuery(highlight, Post.class))
+            .withPageable(pageable)
+            .build();
+        SearchHits<Post> searchHits = elasticsearchTemplate.search(nativeQuery, Post.class);
+        List<PostSearchHit> hits = searchHits
+            .getSearchHits()
+            .stream()
+            .map(hit -> new PostSearchHit(hit.getContent(), hit.getHighlightFields()))
+            .toList();
+        return new PageImpl<>(hits, pageable, searchHits.getTotalHits());
+    }
+
+    @Override
+    public Page<Post> search(PostSearchFilter filter, Pageable pageable) {
+        return search(filterQuery(filter, pageable).build());
+    }
+
+    @Override
+    public PostSearchResult searchWithFacets(PostSearchFilter filter, Pageable pageable) {
+        NativeQuery query = filterQuery(filter, pageable)
+            .withAggregation(TAGS_FACET, Aggregation.of(a -> a.terms(terms -> terms.field("tags.name.keyword").size(FACET_SIZE))))
+            .withAggregation(MODES_FACET, Aggregation.of(a -> a.terms(terms -> terms.field("mode.name.keyword").size(FACET_SIZE))))
+            .withAggregation(
+                MONTHS_FACET,
+                Aggregation.of(a ->
+                    a.dateHistogram(histogram -> histogram.field("date").calendarInterval(CalendarInterval.Month).format("yyyy-MM").minDocCount(1))
+                )
+            )
+            .build();
+        SearchHits<Post> searchHits = elasticsearchTemplate.search(query, Post.class);
+        List<Post> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        Map<String, ElasticsearchAggregation> aggregations = ((ElasticsearchAggregations) searchHits.getAggregations()).aggregationsAsMap();
+        PostFacets facets = new PostFacets(
+            termsFacet(aggregations.get(TAGS_FACET)),
+            termsFacet(aggregations.get(MODES_FACET)),
+            histogramFacet(aggregations.get(MONTHS_FACET))
+        );
+        return new PostSearchResult(new PageImpl<>(hits, pageable, searchHits.getTotalHits()), facets);
+    }
+
+    private static Map<String, Long> termsFacet(ElasticsearchAggregation aggregation) {
+        Map<String, Long> facet = new LinkedHashMap<>();
+        aggregation
+            .aggregation()
+            .getAggregate()
+            .sterms()
+            .buckets()
+            .array()
+            .forEach(bucket -> facet.put(bucket.key().stringValue(), bucket.docCount()));
+        return facet;
+    }
+
+    private static Map<String, Long> histogramFacet(ElasticsearchAggregation aggregation) {
+        Map<String, Long> facet = new LinkedHashMap<>();
+        aggregation
+            .aggregation()
+            .getAggregate()
+            .dateHistogram()
+            .buckets()
+            .array()
+            .forEach(bucket -> facet.put(bucket.keyAsString(), bucket.docCount()));
+        return facet;
+    }
+
+    private static NativeQueryBuilder filterQuery(PostSearchFilter filter, Pageable pageable) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        boolean fullText = false;
+        if (filter.title() != null) {
+            bool.must(MatchQuery.of(match -> match.field("title").query(filter.title()))._toQuery());
+            fullText = true;
+        }
+        if (filter.content() != null) {
+            bool.must(MatchQuery.of(match -> match.field("content").query(filter.content()))._toQuery());
+            fullText = true;
+        }
+        if (filter.tags() != null) {
+            filter.tags().forEach(tag -> bool.filter(TermQuery.of(term -> term.field("tags.name.keyword").value(tag))._toQuery()));
+        }
+        if (filter.mode() != null) {
+            bool.filter(TermQuery.of(term -> term.field("mode.name.keyword").value(filter.mode()))._toQuery());
+        }
+        if (filter.from() != null || filter.to() != null) {
+            bool.filter(RangeQuery.of(range -> range.date(date -> date.field("date").gte(filter.from()).lt(filter.to())))._toQuery());
+        }
+        NativeQueryBuilder query = NativeQuery.builder().withQuery(bool.build()._toQuery()).withPageable(pageable);
+        if (pageable.getSort().isUnsorted()) {
+            query.withSort(fullText ? Sort.by(Sort.Order.desc("_score")) : Sort.by(Sort.Order.desc("date")));
+        }
+        return query;
+    }
+
+    @Override
+    public SearchSlice<Post> searchAfter(String query, String pointInTimeId, List<String> after, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, Post.class, query, pointInTimeId, after, size);
+    }
+
     @Override
     public void index(Post entity) {
-        repository.findOneWithEagerRelationships(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        indexer.synchronize(Post.class, entity.getId());
     }
 
     @Override
     public void deleteFromIndexById(Long id) {
-        elasticsearchTemplate.delete(String.valueOf(id), Post.class);
+        indexer.synchronize(Post.class, id);
     }
 }
@@ -0,0 +1,12 @@
+package com.sample.myapp.repository.search;
+
+import com.sample.myapp.domain.Post;
+import org.springframework.data.domain.Page;
+
+/**
+ * A page of posts matching a search, with the facets of all the posts matching it.
+ *
+ * @param page the page of posts.
+ * @param facets the facets of the search.
+ */
+public record PostSearchResult(Page<Post> page, PostFacets facets) {}
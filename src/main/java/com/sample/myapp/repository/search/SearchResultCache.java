@@ -0,0 +1,204 @@
+package com.sample.myapp.repository.search;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sample.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of the results of query string searches, shared by the search repositories.
+ * <p>
+ * Results are cached by index, normalized query and page, along with the generation of the index when the search
+ * started. The generation of an index is bumped each time documents are written to it, which invalidates all its
+ * cached results at once, without looking them up: a stale result is only dropped when it is read, or when it is the
+ * least recently used one and the cache is full. Elasticsearch only makes documents visible to searches on its next
+ * refresh, so results are not cached for {@code application.search-cache.refresh-interval} after a write. As other
+ * instances of the application write to the indices too, results also expire after {@code time-to-live}.
+ * <p>
+ * The entities of a page are kept as the JSON the REST resources write, and read back for each hit, so that concurrent
+ * requests never share, nor modify, the same instances; the cache holds at most {@code max-size} pages and
+ * {@code max-weight} bytes of JSON, a page heavier than that is not cached.
+ * <p>
+ * Hits and misses are counted by the {@code search.cache.gets} meter, to size the cache.
+ */
+@Component
+public class SearchResultCache {
+
+    public static final String GETS_METER_NAME = "search.cache.gets";
+
+    public static final String SIZE_METER_NAME = "search.cache.size";
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchResultCache.class);
+
+    private final int maxSize;
+
+    private final long maxWeight;
+
+    private final Duration timeToLive;
+
+    private final long refreshIntervalNanos;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // bytes of JSON in the entries, guarded by the entries
+    private long weight;
+
+    public SearchResultCache(ApplicationProperties applicationProperties, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this.maxSize = applicationProperties.getSearchCache().getMaxSize();
+        this.maxWeight = applicationProperties.getSearchCache().getMaxWeight().toBytes();
+        this.timeToLive = applicationProperties.getSearchCache().getTimeToLive();
+        this.refreshIntervalNanos = applicationProperties.getSearchCache().getRefreshInterval().toNanos();
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        Gauge.builder(SIZE_METER_NAME, this, SearchResultCache::size)
+            .description("Number of search results in the cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Get the results of a search from the cache, or search and cache them.
+     *
+     * @param type the type of the searched entities.
+     * @param query the query string.
+     * @param pageable the pagination information.
+     * @param search runs the search.
+     * @return the results of the search.
+     */
+    public <T> Page<T> get(Class<T> type, String query, Pageable pageable, Supplier<Page<T>> search) {
+        if (maxSize <= 0) {
+            return search.get();
+        }
+        String index = type.getSimpleName();
+        Key key = new Key(index, normalize(query), pageable);
+        // read before searching, so that results racing with a write are cached with the generation they predate
+        Generation generation = generation(index);
+        long current = generation.value.get();
+        Instant now = Instant.now();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && entry.generation == current && entry.expires.isAfter(now)) {
+            Page<T> page = read(type, pageable, entry);
+            if (page != null) {
+                countGet(index, "hit");
+                return page;
+            }
+        }
+        countGet(index, "miss");
+        Page<T> page = search.get();
+        if (System.nanoTime() - generation.writtenAt >= refreshIntervalNanos) {
+            byte[] content = write(page);
+            if (content != null && content.length <= maxWeight) {
+                put(key, new Entry(current, now.plus(timeToLive), content, page.getTotalElements()));
+            }
+        }
+        return page;
+    }
+
+    private <T> Page<T> read(Class<T> type, Pageable pageable, Entry entry) {
+        JavaType contentType = objectMapper.getTypeFactory().constructCollectionType(List.class, type);
+        try {
+            List<T> content = objectMapper.readValue(entry.content, contentType);
+            return new PageImpl<>(content, pageable, entry.total);
+        } catch (IOException e) {
+            LOG.warn("Could not read cached {} search results: {}", type.getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] write(Page<?> page) {
+        try {
+            return objectMapper.writeValueAsBytes(page.getContent());
+        } catch (IOException e) {
+            LOG.warn("Could not cache search results: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void put(Key key, Entry entry) {
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            weight += entry.content.length - (previous != null ? previous.content.length : 0);
+            // the least recently used entries come first
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxSize || weight > maxWeight) {
+                weight -= eldest.next().content.length;
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Invalidate the cached results of an index, after documents have been written to it.
+     *
+     * @param type the type of the entities of the index.
+     */
+    public void invalidate(Class<?> type) {
+        Generation generation = generation(type.getSimpleName());
+        generation.writtenAt = System.nanoTime();
+        generation.value.incrementAndGet();
+    }
+
+    private Generation generation(String index) {
+        return generations.computeIfAbsent(index, name -> new Generation());
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void countGet(String index, String result) {
+        Counter.builder(GETS_METER_NAME)
+            .description("Number of search results read from the cache, or missing from it")
+            .tag("index", index)
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /**
+     * Whitespace is not significant in query strings, but case is: {@code AND} is an operator, {@code and} a term.
+     */
+    static String normalize(String query) {
+        return query.strip().replaceAll("\\s+", " ");
+    }
+
+    private static final class Generation {
+
+        private final AtomicLong value = new AtomicLong();
+
+        // System.nanoTime() of the last write, long enough ago for the first searches
+        private volatile long writtenAt = System.nanoTime() - Long.MAX_VALUE / 2;
+    }
+
+    private record Key(String index, String query, Pageable pageable) {}
+
+    private record Entry(long generation, Instant expires, byte[] content, long total) {}
+}
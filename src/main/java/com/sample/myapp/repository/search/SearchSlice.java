@@ -0,0 +1,17 @@
+package com.sample.myapp.repository.search;
+
+import java.util.List;
+
+/**
+ * A slice of search results, read with {@code search_after} from a point in time of the index.
+ *
+ * @param content the documents of the slice.
+ * @param pointInTimeId the id of the point in time to read the next slice from.
+ * @param nextSortValues the sort values to read the next slice after, or {@code null} if this is the last slice.
+ * @param <T> the type of the documents.
+ */
+public record SearchSlice<T>(List<T> content, String pointInTimeId, List<String> nextSortValues) {
+    public boolean hasNext() {
+        return nextSortValues != null;
+    }
+}
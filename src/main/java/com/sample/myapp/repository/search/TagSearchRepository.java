@@ -4,6 +4,10 @@ import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
 import com.sample.myapp.domain.Tag;
 import com.sample.myapp.repository.TagRepository;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -13,7 +17,6 @@ import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Tag} entity.
@@ -21,29 +24,85 @@ import org.springframework.scheduling.annotation.Async;
 public interface TagSearchRepository extends ElasticsearchRepository<Tag, Long>, TagSearchRepositoryInternal {}
 
 interface TagSearchRepositoryInternal {
+    /**
+     * Search for tags with a query string; the results are cached until the index is written to, see
+     * {@link SearchResultCache}.
+     *
+     * @param query the query string.
+     * @param pageable the pagination information.
+     * @return the page of tags.
+     */
     Page<Tag> search(String query, Pageable pageable);
 
     Page<Tag> search(Query query);
 
-    @Async
+    /**
+     * Search for tags, one slice at a time, at a constant cost whatever the depth of the slice.
+     *
+     * @param query the query string.
+     * @param pointInTimeId the point in time returned with the previous slice, or {@code null} for the first slice.
+     * @param after the sort values returned with the previous slice, or {@code null} for the first slice.
+     * @param size the maximum number of tags in the slice.
+     * @return the slice, sorted by relevance.
+     */
+    SearchSlice<Tag> searchAfter(String query, String pointInTimeId, List<String> after, int size);
+
+    /**
+     * Index a tag once the current transaction has committed, through the outbox of the {@link CoalescingIndexer}.
+     *
+     * @param entity the tag to index, which is read again when the outbox is applied.
+     */
     void index(Tag entity);
 
-    @Async
     void deleteFromIndexById(Long id);
 }
 
 class TagSearchRepositoryInternalImpl implements TagSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final TagRepository repository;
+    private final CoalescingIndexer indexer;
+    private final SearchResultCache searchResultCache;
+
+    private final Optional<LuceneSearchIndex> localIndex;
 
-    TagSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, TagRepository repository) {
+    TagSearchRepositoryInternalImpl(
+        ElasticsearchTemplate elasticsearchTemplate,
+        TagRepository repository,
+        CoalescingIndexer indexer,
+        SearchResultCache searchResultCache,
+        Optional<LuceneSearchIndex> localIndex
+    ) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.indexer = indexer;
+        this.searchResultCache = searchResultCache;
+        this.localIndex = localIndex;
+        indexer.register(Tag.class, repository::findAllById, Tag::getId);
+        localIndex.ifPresent(index ->
+            index.register(
+                Tag.class,
+                new LuceneSearchIndex.Mapping<>(
+                    Tag::getId,
+                    (tag, document) -> {
+                        if (tag.getName() != null) {
+                            document.add(new TextField("name", tag.getName(), Field.Store.NO));
+                        }
+                    },
+                    List.of("name"),
+                    Set.of()
+                )
+            )
+        );
     }
 
     @Override
     public Page<Tag> search(String query, Pageable pageable) {
+        return searchResultCache.get(Tag.class, query, pageable, () -> searchUncached(query, pageable));
+    }
+
+    private Page<Tag> searchUncached(String query, Pageable pageable) {
+        if (localIndex.isPresent()) {
+            return localIndex.get().search(Tag.class, query, pageable, ids -> indexer.load(Tag.class, ids));
+        }
         NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
         return search(nativeQuery.setPageable(pageable));
     }
@@ -55,13 +114,18 @@ class TagSearchRepositoryInternalImpl implements TagSearchRepositoryInternal {
         return new PageImpl<>(hits, query.getPageable(), searchHits.getTotalHits());
     }
 
+    @Override
+    public SearchSlice<Tag> searchAfter(String query, String pointInTimeId, List<String> after, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, Tag.class, query, pointInTimeId, after, size);
+    }
+
     @Override
     public void index(Tag entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        indexer.synchronize(Tag.class, entity.getId());
     }
 
     @Override
     public void deleteFromIndexById(Long id) {
-        elasticsearchTemplate.delete(String.valueOf(id), Tag.class);
+        indexer.synchronize(Tag.class, id);
     }
 }
@@ -3,13 +3,15 @@ package com.sample.myapp.repository.search;
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
 import com.sample.myapp.domain.User;
 import com.sample.myapp.repository.UserRepository;
-import java.util.stream.Stream;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Spring Data Elasticsearch repository for the User entity.
@@ -17,40 +19,61 @@ import org.springframework.transaction.annotation.Transactional;
 public interface UserSearchRepository extends ElasticsearchRepository<User, Long>, UserSearchRepositoryInternal {}
 
 interface UserSearchRepositoryInternal {
-    Stream<User> search(String query);
+    Page<User> search(String query, Pageable pageable);
 
-    @Async
-    @Transactional
+    /**
+     * Search for users, one slice at a time, at a constant cost whatever the depth of the slice.
+     *
+     * @param query the query string.
+     * @param pointInTimeId the point in time returned with the previous slice, or {@code null} for the first slice.
+     * @param after the sort values returned with the previous slice, or {@code null} for the first slice.
+     * @param size the maximum number of users in the slice.
+     * @return the slice, sorted by relevance.
+     */
+    SearchSlice<User> searchAfter(String query, String pointInTimeId, List<String> after, int size);
+
+    /**
+     * Index a user once the current transaction has committed, through the outbox of the {@link CoalescingIndexer}.
+     *
+     * @param entity the user to index, which is read again when the outbox is applied.
+     */
     void index(User entity);
 
-    @Async
-    @Transactional
     void deleteFromIndex(User entity);
 }
 
 class UserSearchRepositoryInternalImpl implements UserSearchRepositoryInternal {
 
     private final ElasticsearchTemplate elasticsearchTemplate;
-    private final UserRepository repository;
+    private final CoalescingIndexer indexer;
 
-    UserSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, UserRepository repository) {
+    UserSearchRepositoryInternalImpl(ElasticsearchTemplate elasticsearchTemplate, UserRepository repository, CoalescingIndexer indexer) {
         this.elasticsearchTemplate = elasticsearchTemplate;
-        this.repository = repository;
+        this.indexer = indexer;
+        indexer.register(User.class, repository::findAllById, User::getId);
     }
 
     @Override
-    public Stream<User> search(String query) {
+    public Page<User> search(String query, Pageable pageable) {
         NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return elasticsearchTemplate.search(nativeQuery, User.class).map(SearchHit::getContent).stream();
+        nativeQuery.setPageable(pageable);
+        SearchHits<User> searchHits = elasticsearchTemplate.search(nativeQuery, User.class);
+        List<User> hits = searchHits.map(SearchHit::getContent).stream().toList();
+        return new PageImpl<>(hits, pageable, searchHits.getTotalHits());
+    }
+
+    @Override
+    public SearchSlice<User> searchAfter(String query, String pointInTimeId, List<String> after, int size) {
+        return PointInTimeSearch.search(elasticsearchTemplate, User.class, query, pointInTimeId, after, size);
     }
 
     @Override
     public void index(User entity) {
-        repository.findById(entity.getId()).ifPresent(elasticsearchTemplate::save);
+        indexer.synchronize(User.class, entity.getId());
     }
 
     @Override
     public void deleteFromIndex(User entity) {
-        elasticsearchTemplate.delete(entity);
+        indexer.synchronize(User.class, entity.getId());
     }
 }
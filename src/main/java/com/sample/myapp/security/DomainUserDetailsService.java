@@ -2,6 +2,7 @@ package com.sample.myapp.security;
 
 import com.sample.myapp.domain.Authority;
 import com.sample.myapp.domain.User;
+import com.sample.myapp.repository.UserLookupFilter;
 import com.sample.myapp.repository.UserRepository;
 import java.util.*;
 import org.hibernate.validator.internal.constraintvalidators.hv.EmailValidator;
@@ -25,8 +26,11 @@ public class DomainUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final UserLookupFilter userLookupFilter;
+
+    public DomainUserDetailsService(UserRepository userRepository, UserLookupFilter userLookupFilter) {
         this.userRepository = userRepository;
+        this.userLookupFilter = userLookupFilter;
     }
 
     @Override
@@ -34,7 +38,11 @@ public class DomainUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(final String login) {
         LOG.debug("Authenticating {}", login);
 
+        // the filter only answers that a user is absent while it hears of every user committed by the other instances
         if (new EmailValidator().isValid(login, null)) {
+            if (!userLookupFilter.mightContainEmail(login)) {
+                throw new UsernameNotFoundException("User with email " + login + " was not found in the database");
+            }
             return userRepository
                 .findOneWithAuthoritiesByEmailIgnoreCase(login)
                 .map(user -> createSpringSecurityUser(login, user))
@@ -42,6 +50,9 @@ public class DomainUserDetailsService implements UserDetailsService {
         }
 
         String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
+        if (!userLookupFilter.mightContainLogin(lowercaseLogin)) {
+            throw new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database");
+        }
         return userRepository
             .findOneWithAuthoritiesByLogin(lowercaseLogin)
             .map(user -> createSpringSecurityUser(lowercaseLogin, user))
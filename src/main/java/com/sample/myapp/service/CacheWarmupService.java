@@ -0,0 +1,150 @@
+package com.sample.myapp.service;
+
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.domain.User;
+import com.sample.myapp.repository.AuthorityRepository;
+import com.sample.myapp.repository.ModeRepository;
+import com.sample.myapp.repository.PostRepository;
+import com.sample.myapp.repository.TagRepository;
+import com.sample.myapp.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service loading the most read data in the caches on startup, when {@code application.cache.warmup.enabled} is set:
+ * all the tags, modes and authorities, the most recently active users, and the newest posts.
+ * <p>
+ * Each kind of data is loaded in parallel, in its own transaction, from the primary database, and at most
+ * {@code application.cache.warmup.max-rows} rows of each are read. The warm-up runs before the application reports that
+ * it accepts traffic, so that the readiness probe only succeeds once the caches are warm; it is given up after
+ * {@code timeout}, whatever is left, so that a slow database cannot hold the startup back. What was loaded is logged.
+ */
+@Service
+public class CacheWarmupService implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    private final ApplicationProperties.Cache.Warmup properties;
+
+    private final TagRepository tagRepository;
+
+    private final ModeRepository modeRepository;
+
+    private final AuthorityRepository authorityRepository;
+
+    private final UserRepository userRepository;
+
+    private final PostRepository postRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public CacheWarmupService(
+        ApplicationProperties applicationProperties,
+        TagRepository tagRepository,
+        ModeRepository modeRepository,
+        AuthorityRepository authorityRepository,
+        UserRepository userRepository,
+        PostRepository postRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.properties = applicationProperties.getCache().getWarmup();
+        this.tagRepository = tagRepository;
+        this.modeRepository = modeRepository;
+        this.authorityRepository = authorityRepository;
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        // not read-only: read-only transactions do not fill the cache when they may read from a lagging replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (Boolean.TRUE.equals(properties.getEnabled())) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Load the most read data in the caches.
+     *
+     * @return the number of rows loaded of each kind of data, or {@code -1} for the ones that failed or were not done in
+     * time.
+     * @throws InterruptedException if interrupted while waiting for the warm-up.
+     */
+    public Map<String, Integer> warmUp() throws InterruptedException {
+        PageRequest firstRows = PageRequest.of(0, properties.getMaxRows());
+        Map<String, IntSupplier> loaders = new LinkedHashMap<>();
+        loaders.put("tags", () -> tagRepository.findAll(firstRows).getNumberOfElements());
+        loaders.put("modes", () -> modeRepository.findAllWithEagerRelationships(firstRows).getNumberOfElements());
+        loaders.put("authorities", () -> authorityRepository.findAll(firstRows).getNumberOfElements());
+        loaders.put("users", this::loadRecentUsers);
+        loaders.put("posts", () ->
+            postRepository
+                .findAllWithEagerRelationships(firstRows.withSort(Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id"))))
+                .getNumberOfElements()
+        );
+
+        long start = System.nanoTime();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        loaders.values().forEach(loader -> tasks.add(() -> transactionTemplate.execute(status -> loader.getAsInt())));
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-warmup-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size(), threadFactory);
+        List<Future<Integer>> futures;
+        try {
+            futures = executor.invokeAll(tasks, properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Integer> loaded = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>(loaders.keySet());
+        for (int i = 0; i < names.size(); i++) {
+            loaded.put(names.get(i), result(names.get(i), futures.get(i)));
+        }
+        LOG.info("Warmed up the caches in {} ms: {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), loaded);
+        return loaded;
+    }
+
+    /**
+     * Load the users most recently modified, which includes logging in for the first time, as authentication reads
+     * them: through {@link UserRepository#findOneWithAuthoritiesByLogin(String)}, to fill its cache.
+     */
+    private int loadRecentUsers() {
+        PageRequest recent = PageRequest.of(0, properties.getMaxRows(), Sort.by(Sort.Order.desc("lastModifiedDate")));
+        List<User> users = userRepository.findAllByIdNotNullAndActivatedIsTrue(recent).getContent();
+        users.forEach(user -> userRepository.findOneWithAuthoritiesByLogin(user.getLogin()));
+        return users.size();
+    }
+
+    private static int result(String name, Future<Integer> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            LOG.warn("Gave up warming up the cache of {}, it took too long", name);
+        } catch (ExecutionException e) {
+            LOG.warn("Could not warm up the cache of {}: {}", name, e.getCause().getMessage());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,170 @@
+package com.sample.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.domain.Post;
+import com.sample.myapp.repository.PostRepository;
+import com.sample.myapp.repository.search.PostSearchRepository;
+import com.sample.myapp.service.dto.BulkItemResultDTO;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service creating posts in bulk.
+ * <p>
+ * Posts are saved by chunks of {@code application.post-bulk.chunk-size}, each chunk in its own transaction, so that
+ * Hibernate sends their inserts, and the inserts of their tags, in JDBC batches. The posts are indexed through the
+ * outbox of the {@link com.sample.myapp.repository.search.CoalescingIndexer}, like the posts created one by one: its
+ * events are recorded in the transaction of the chunk, and the indexer sends the posts of a chunk to Elasticsearch in
+ * bulk requests. When a chunk fails, its posts are saved again one by one, to report which ones are wrong.
+ */
+@Service
+public class PostBulkService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PostBulkService.class);
+
+    private final ApplicationProperties.PostBulk properties;
+
+    private final PostRepository postRepository;
+
+    private final PostSearchRepository postSearchRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    public PostBulkService(
+        ApplicationProperties applicationProperties,
+        PostRepository postRepository,
+        PostSearchRepository postSearchRepository,
+        TransactionTemplate transactionTemplate,
+        Validator validator
+    ) {
+        this.properties = applicationProperties.getPostBulk();
+        this.postRepository = postRepository;
+        this.postSearchRepository = postSearchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+    }
+
+    /**
+     * Create posts, as they are read. Must not be called within a transaction.
+     * <p>
+     * Reading stops at the first post that cannot be parsed: the posts read before it are still created, and the
+     * result of the malformed post is the last one.
+     *
+     * @param posts the posts to create.
+     * @return the result of each post, in order.
+     */
+    public List<BulkItemResultDTO> createAll(Iterator<Post> posts) {
+        List<BulkItemResultDTO> results = new ArrayList<>();
+        List<Item> chunk = new ArrayList<>(properties.getChunkSize());
+        for (int index = 0; ; index++) {
+            Post post;
+            try {
+                if (!posts.hasNext()) {
+                    break;
+                }
+                post = posts.next();
+            } catch (RuntimeException e) {
+                // the iterator wraps binding errors in RuntimeJsonMappingException, and parsing errors in RuntimeException
+                if (!(e instanceof RuntimeJsonMappingException) && !(e.getCause() instanceof JsonProcessingException)) {
+                    throw e;
+                }
+                results.add(failure(index, HttpStatus.BAD_REQUEST, "Malformed post: " + e.getMessage()));
+                break;
+            }
+            String invalid = validate(post);
+            if (invalid != null) {
+                results.add(failure(index, HttpStatus.BAD_REQUEST, invalid));
+            } else {
+                chunk.add(new Item(index, post));
+                if (chunk.size() >= properties.getChunkSize()) {
+                    createChunk(chunk, results);
+                }
+            }
+        }
+        createChunk(chunk, results);
+        results.sort(Comparator.comparingInt(BulkItemResultDTO::getIndex));
+        LOG.debug("Created {} posts in bulk", results.stream().filter(result -> result.getId() != null).count());
+        return results;
+    }
+
+    private String validate(Post post) {
+        if (post.getId() != null) {
+            return "A new post cannot already have an ID";
+        }
+        Set<ConstraintViolation<Post>> violations = validator.validate(post);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations
+            .stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+    }
+
+    private void createChunk(List<Item> chunk, List<BulkItemResultDTO> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Post> created;
+        try {
+            created = transactionTemplate.execute(status -> save(chunk));
+        } catch (DataAccessException e) {
+            LOG.debug("Could not save a chunk of {} posts, saving them one by one: {}", chunk.size(), e.getMessage());
+            created = new ArrayList<>();
+            for (Item item : chunk) {
+                try {
+                    created.addAll(transactionTemplate.execute(status -> save(List.of(item))));
+                } catch (DataIntegrityViolationException ex) {
+                    results.add(failure(item.index(), HttpStatus.BAD_REQUEST, "The post references a missing mode or tag, or is incomplete"));
+                } catch (DataAccessException ex) {
+                    LOG.warn("Could not save post {} of a bulk request: {}", item.index(), ex.getMessage());
+                    results.add(failure(item.index(), HttpStatus.INTERNAL_SERVER_ERROR, "The post could not be saved"));
+                }
+            }
+        }
+        Set<Long> createdIds = created.stream().map(Post::getId).collect(Collectors.toSet());
+        for (Item item : chunk) {
+            if (createdIds.contains(item.post().getId())) {
+                results.add(new BulkItemResultDTO(item.index(), item.post().getId(), HttpStatus.CREATED.value(), null));
+            }
+        }
+        chunk.clear();
+    }
+
+    private List<Post> save(List<Item> items) {
+        List<Post> posts = new ArrayList<>(items.size());
+        for (Item item : items) {
+            // a failed chunk may have given ids and versions to its posts
+            Post post = item.post().id(null).version(null);
+            posts.add(postRepository.resolveRelationshipReferences(post));
+        }
+        postRepository.saveAll(posts);
+        postRepository.flush();
+        posts.forEach(postSearchRepository::index);
+        return posts;
+    }
+
+    private static BulkItemResultDTO failure(int index, HttpStatus status, String error) {
+        return new BulkItemResultDTO(index, null, status.value(), error);
+    }
+
+    private record Item(int index, Post post) {}
+}
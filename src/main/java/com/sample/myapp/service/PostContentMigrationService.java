@@ -0,0 +1,109 @@
+package com.sample.myapp.service;
+
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.domain.PostContentCodec;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service recompressing the content of existing posts, once {@code application.post-content.compress} is enabled.
+ * <p>
+ * Posts are migrated by chunks of increasing ids, each chunk in its own transaction, so that the migration never holds
+ * locks on many rows and can be interrupted at any time: the next run starts over and skips posts that are already
+ * compressed.
+ */
+@Service
+public class PostContentMigrationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PostContentMigrationService.class);
+
+    private static final String SELECT_CHUNK_SQL = "select id, content from post where id > ? order by id fetch first ? rows only for update";
+
+    private static final String UPDATE_CONTENT_SQL = "update post set content = ? where id = ?";
+
+    private final ApplicationProperties.PostContent properties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PostContentMigrationService(
+        ApplicationProperties applicationProperties,
+        JdbcTemplate jdbcTemplate,
+        TransactionTemplate transactionTemplate
+    ) {
+        this.properties = applicationProperties.getPostContent();
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (Boolean.TRUE.equals(properties.getCompress()) && Boolean.TRUE.equals(properties.getMigrateOnStartup())) {
+            compressAll();
+        }
+    }
+
+    /**
+     * Compress the content of all the posts that are stored as plain text and are worth compressing.
+     * <p>
+     * The content of a post is unchanged as seen through the entity, so the second-level cache and the search index do
+     * not need to be updated.
+     *
+     * @return the number of posts that have been compressed.
+     */
+    public int compressAll() {
+        LOG.info("Compressing the content of posts, by chunks of {}", properties.getMigrationChunkSize());
+        long lastId = 0;
+        int compressed = 0;
+        while (true) {
+            ChunkResult chunk = compressChunk(lastId);
+            if (chunk == null) {
+                break;
+            }
+            lastId = chunk.lastId();
+            compressed += chunk.compressed();
+            LOG.debug("Compressed the content of {} posts up to id {}", compressed, lastId);
+        }
+        LOG.info("Compressed the content of {} posts", compressed);
+        return compressed;
+    }
+
+    private ChunkResult compressChunk(long afterId) {
+        return transactionTemplate.execute(status -> {
+            List<Object[]> updates = new ArrayList<>();
+            List<Long> ids = jdbcTemplate.query(
+                SELECT_CHUNK_SQL,
+                (rs, rowNum) -> {
+                    long id = rs.getLong("id");
+                    String stored = rs.getString("content");
+                    if (!PostContentCodec.isCompressed(stored)) {
+                        String encoded = PostContentCodec.encode(stored, properties.getCompressMinLength());
+                        if (PostContentCodec.isCompressed(encoded)) {
+                            updates.add(new Object[] { encoded, id });
+                        }
+                    }
+                    return id;
+                },
+                afterId,
+                properties.getMigrationChunkSize()
+            );
+            if (ids.isEmpty()) {
+                return null;
+            }
+            jdbcTemplate.batchUpdate(UPDATE_CONTENT_SQL, updates);
+            return new ChunkResult(ids.get(ids.size() - 1), updates.size());
+        });
+    }
+
+    private record ChunkResult(long lastId, int compressed) {}
+}
@@ -0,0 +1,103 @@
+package com.sample.myapp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sample.myapp.domain.Post;
+import com.sample.myapp.repository.PostRepository;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service exporting posts as newline-delimited JSON.
+ * <p>
+ * Posts are read by slices of {@value #SLICE_SIZE}, seeking on {@code (date, id)}, each slice in its own read-only
+ * transaction: the memory used does not depend on the number of posts, and a database connection is only held while a
+ * slice is read, not while it is written to a slow client.
+ * <p>
+ * The second-level cache is neither read nor written: an export reads every post once, and would otherwise evict the
+ * posts, modes and tags that are actually read often.
+ */
+@Service
+public class PostExportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PostExportService.class);
+
+    private static final int SLICE_SIZE = 100;
+
+    private final PostRepository postRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter postWriter;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PostExportService(
+        PostRepository postRepository,
+        EntityManager entityManager,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.postRepository = postRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.postWriter = objectMapper.writerFor(Post.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Write posts, newest first, one JSON object per line. Must not be called within a transaction.
+     *
+     * @param from the start of the period of the posts, included, or {@code null}.
+     * @param to the end of the period of the posts, excluded, or {@code null}.
+     * @param modeId the id of the mode of the posts, or {@code null} for all the posts.
+     * @param out the stream to write to, which is left open.
+     * @return the number of posts written.
+     * @throws IOException if the posts cannot be written.
+     */
+    public long export(Instant from, Instant to, Long modeId, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Post last = null;
+            while (true) {
+                Instant afterDate = last != null ? last.getDate() : null;
+                Long afterId = last != null ? last.getId() : null;
+                List<Post> posts = transactionTemplate.execute(status -> {
+                    // the session is read-only too, as the transaction is
+                    entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                    return postRepository.findAllWithEagerRelationshipsAfter(from, to, modeId, afterDate, afterId, Limit.of(SLICE_SIZE));
+                });
+                for (Post post : posts) {
+                    postWriter.writeValue(generator, post);
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+                count += posts.size();
+                if (posts.size() < SLICE_SIZE) {
+                    break;
+                }
+                last = posts.get(posts.size() - 1);
+            }
+        }
+        LOG.debug("Exported {} posts", count);
+        return count;
+    }
+}
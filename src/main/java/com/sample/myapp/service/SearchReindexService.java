@@ -0,0 +1,406 @@
+package com.sample.myapp.service;
+
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.repository.search.CoalescingIndexer;
+import com.sample.myapp.repository.search.LuceneSearchIndex;
+import com.sample.myapp.repository.search.SearchResultCache;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service rebuilding the search indices from the database, without interrupting searches.
+ * <p>
+ * The index name of each {@code @Document} is used as an alias. A reindex creates a new index, named after the alias
+ * and the time of the reindex, with the current mapping, and with refreshes and replicas disabled. The entities are
+ * split in {@code application.search-reindex.parallelism} id ranges, scanned in parallel by slices of
+ * {@code slice-size} entities, each slice being written with one bulk request. Once the index is loaded, its settings
+ * are restored, and the alias is moved to it in a single atomic request, which also removes the previous index.
+ * <p>
+ * The search outbox is paused on every instance during the reindex, and its pause lease is renewed as slices are
+ * written: the changes made meanwhile, on any instance, are applied to the new index once the alias has been moved, and
+ * the cached search results of the index are invalidated.
+ * <p>
+ * With the {@code lucene} profile, the entities are also written to a new local {@link LuceneSearchIndex} of the type,
+ * built aside, which replaces the current one along with the alias: local searches keep seeing the previous documents
+ * until then.
+ */
+@Service
+public class SearchReindexService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchReindexService.class);
+
+    private static final DateTimeFormatter INDEX_SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+    private static final String DEFAULT_REFRESH_INTERVAL = "1s";
+
+    private static final String DEFAULT_NUMBER_OF_REPLICAS = "1";
+
+    private final ApplicationProperties.SearchReindex properties;
+
+    private final CoalescingIndexer indexer;
+
+    private final ElasticsearchTemplate elasticsearchTemplate;
+
+    private final SearchResultCache searchResultCache;
+
+    private final Optional<LuceneSearchIndex> localIndex;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService jobExecutor;
+
+    private volatile Job job;
+
+    public SearchReindexService(
+        ApplicationProperties applicationProperties,
+        CoalescingIndexer indexer,
+        ElasticsearchTemplate elasticsearchTemplate,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        SearchResultCache searchResultCache,
+        Optional<LuceneSearchIndex> localIndex
+    ) {
+        this.properties = applicationProperties.getSearchReindex();
+        this.indexer = indexer;
+        this.elasticsearchTemplate = elasticsearchTemplate;
+        this.entityManager = entityManager;
+        this.searchResultCache = searchResultCache;
+        this.localIndex = localIndex;
+        // not read-only, so that the entities are read from the primary database, not from a replica that may lag
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("search-reindex-");
+        threadFactory.setDaemon(true);
+        this.jobExecutor = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    @PreDestroy
+    public void stop() {
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * @return the names of the indices that can be rebuilt.
+     */
+    public List<String> getIndexNames() {
+        return indexer.getIndexedTypes().stream().map(this::aliasOf).sorted().toList();
+    }
+
+    /**
+     * Start rebuilding indices in the background, unless a reindex is already running.
+     *
+     * @param indexNames the names of the indices to rebuild, or an empty list for all the indices.
+     * @return the status of the new reindex, or empty if a reindex is already running.
+     */
+    public synchronized Optional<Status> start(List<String> indexNames) {
+        if (job != null && job.finished == null) {
+            return Optional.empty();
+        }
+        List<IndexJob> indexJobs = new ArrayList<>();
+        String suffix = INDEX_SUFFIX_FORMAT.format(Instant.now());
+        for (Class<?> type : indexer.getIndexedTypes()) {
+            String alias = aliasOf(type);
+            if (indexNames.isEmpty() || indexNames.contains(alias)) {
+                indexJobs.add(new IndexJob(type, alias, alias + "-" + suffix));
+            }
+        }
+        job = new Job(Instant.now(), indexJobs);
+        jobExecutor.execute(this::run);
+        return Optional.of(getStatus());
+    }
+
+    /**
+     * @return the status of the running reindex, or of the last one.
+     */
+    public Status getStatus() {
+        Job current = job;
+        if (current == null) {
+            return new Status(false, null, null, List.of());
+        }
+        return new Status(
+            current.finished == null,
+            current.started,
+            current.finished,
+            current.indexJobs.stream()
+                .map(indexJob ->
+                    new IndexStatus(
+                        indexJob.alias,
+                        indexJob.index,
+                        indexJob.state,
+                        indexJob.total,
+                        indexJob.indexed.get(),
+                        indexJob.error
+                    )
+                )
+                .toList()
+        );
+    }
+
+    private String aliasOf(Class<?> type) {
+        return elasticsearchTemplate.getIndexCoordinatesFor(type).getIndexName();
+    }
+
+    private void run() {
+        Job current = job;
+        indexer.pause();
+        try {
+            for (IndexJob indexJob : current.indexJobs) {
+                try {
+                    reindex(indexJob);
+                    indexJob.state = State.DONE;
+                } catch (Exception e) {
+                    LOG.error("Could not rebuild the {} index", indexJob.alias, e);
+                    indexJob.state = State.FAILED;
+                    indexJob.error = e.getMessage();
+                    deleteQuietly(indexJob.index);
+                }
+            }
+        } finally {
+            indexer.resume();
+            current.finished = Instant.now();
+        }
+    }
+
+    private void reindex(IndexJob indexJob) throws InterruptedException, ExecutionException {
+        LOG.info("Rebuilding the {} index into {}", indexJob.alias, indexJob.index);
+        indexJob.state = State.LOADING;
+        IndexOperations entityIndexOps = elasticsearchTemplate.indexOps(indexJob.type);
+        Settings settings = entityIndexOps.createSettings(indexJob.type).flatten();
+        String refreshInterval = settingOrDefault(settings, "index.refresh_interval", DEFAULT_REFRESH_INTERVAL);
+        String numberOfReplicas = settingOrDefault(settings, "index.number_of_replicas", DEFAULT_NUMBER_OF_REPLICAS);
+        settings.put("index.refresh_interval", "-1");
+        settings.put("index.number_of_replicas", "0");
+        IndexOperations indexOps = elasticsearchTemplate.indexOps(IndexCoordinates.of(indexJob.index));
+        indexOps.create(settings, entityIndexOps.createMapping(indexJob.type));
+        // the local index is rebuilt from scratch too, so that the entities deleted without an outbox event are dropped
+        Optional<LuceneSearchIndex.Rebuild<?>> localRebuild = localIndex
+            .filter(index -> index.isRegistered(indexJob.type))
+            .map(index -> index.rebuild(indexJob.type));
+        try {
+            load(indexJob, localRebuild);
+
+            indexJob.state = State.SWAPPING;
+            elasticsearchTemplate.execute(client ->
+                client.indices().putSettings(put -> put.index(indexJob.index).settings(index -> index.refreshInterval(time -> time.time(refreshInterval)).numberOfReplicas(numberOfReplicas))
+                )
+            );
+            indexOps.refresh();
+            swapAlias(indexJob);
+            localRebuild.ifPresent(LuceneSearchIndex.Rebuild::replace);
+        } finally {
+            localRebuild.ifPresent(LuceneSearchIndex.Rebuild::close);
+        }
+        searchResultCache.invalidate(indexJob.type);
+        LOG.info("Rebuilt the {} index with {} documents", indexJob.alias, indexJob.indexed.get());
+    }
+
+    private static String settingOrDefault(Settings settings, String key, String defaultValue) {
+        Object value = settings.get(key);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    private void load(IndexJob indexJob, Optional<LuceneSearchIndex.Rebuild<?>> localRebuild)
+        throws InterruptedException, ExecutionException {
+        String entityName = indexJob.type.getSimpleName();
+        Object[] bounds = transactionTemplate.execute(status ->
+            entityManager
+                .createQuery("select min(entity.id), max(entity.id), count(entity) from " + entityName + " entity", Object[].class)
+                .getSingleResult()
+        );
+        indexJob.total = (Long) bounds[2];
+        if (indexJob.total == 0) {
+            return;
+        }
+        List<long[]> ranges = partition((Long) bounds[0], (Long) bounds[1], properties.getParallelism());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("search-reindex-" + indexJob.alias + "-");
+        threadFactory.setDaemon(true);
+        ExecutorService scanners = Executors.newFixedThreadPool(ranges.size(), threadFactory);
+        try {
+            List<Future<?>> scans = new ArrayList<>();
+            for (long[] range : ranges) {
+                scans.add(scanners.submit(() -> scan(indexJob, localRebuild, range[0], range[1])));
+            }
+            for (Future<?> scan : scans) {
+                scan.get();
+            }
+        } finally {
+            scanners.shutdownNow();
+        }
+    }
+
+    /**
+     * Split an id range in ranges of about the same size.
+     *
+     * @param min the lowest id, included.
+     * @param max the highest id, included.
+     * @param count the maximum number of ranges.
+     * @return the ranges, as pairs of the lowest id, included, and of the highest id, included.
+     */
+    static List<long[]> partition(long min, long max, int count) {
+        long size = Math.max(1, (max - min + count) / count);
+        List<long[]> ranges = new ArrayList<>();
+        for (long start = min; ; start += size) {
+            ranges.add(new long[] { start, Math.min(max, start + size - 1) });
+            if (max - start < size) {
+                break;
+            }
+        }
+        return ranges;
+    }
+
+    private void scan(IndexJob indexJob, Optional<LuceneSearchIndex.Rebuild<?>> localRebuild, long first, long last) {
+        String entityName = indexJob.type.getSimpleName();
+        IndexCoordinates coordinates = IndexCoordinates.of(indexJob.index);
+        long after = first - 1;
+        while (true) {
+            long from = after;
+            List<Long> ids = transactionTemplate.execute(status -> {
+                List<Long> slice = entityManager
+                    .createQuery(
+                        "select entity.id from " + entityName + " entity where entity.id > :after and entity.id <= :last order by entity.id",
+                        Long.class
+                    )
+                    .setParameter("after", from)
+                    .setParameter("last", last)
+                    .setMaxResults(properties.getSliceSize())
+                    .getResultList();
+                if (!slice.isEmpty()) {
+                    List<?> entities = indexer.load(indexJob.type, slice);
+                    if (!entities.isEmpty()) {
+                        elasticsearchTemplate.save(entities, coordinates);
+                        localRebuild.ifPresent(rebuild -> indexLocally(rebuild, entities));
+                    }
+                    indexJob.indexed.addAndGet(entities.size());
+                }
+                return slice;
+            });
+            indexer.renewPause();
+            if (ids.size() < properties.getSliceSize()) {
+                return;
+            }
+            after = ids.get(ids.size() - 1);
+        }
+    }
+
+    private static <T> void indexLocally(LuceneSearchIndex.Rebuild<T> rebuild, List<?> entities) {
+        rebuild.index(entities.stream().map(rebuild.type()::cast).toList());
+    }
+
+    private void swapAlias(IndexJob indexJob) {
+        elasticsearchTemplate.execute(client -> {
+            Set<String> previousIndices = client.indices().existsAlias(exists -> exists.name(indexJob.alias)).value()
+                ? client.indices().getAlias(get -> get.name(indexJob.alias)).result().keySet()
+                : Set.of();
+            // before the first reindex, the alias is the name of the index written by Spring Data
+            boolean concreteIndex = previousIndices.isEmpty() && client.indices().exists(exists -> exists.index(indexJob.alias)).value();
+            return client
+                .indices()
+                .updateAliases(update -> {
+                    update.actions(action -> action.add(add -> add.index(indexJob.index).alias(indexJob.alias)));
+                    if (concreteIndex) {
+                        update.actions(action -> action.removeIndex(remove -> remove.index(indexJob.alias)));
+                    }
+                    previousIndices.forEach(previous -> update.actions(action -> action.removeIndex(remove -> remove.index(previous))));
+                    return update;
+                });
+        });
+    }
+
+    private void deleteQuietly(String index) {
+        try {
+            elasticsearchTemplate.indexOps(IndexCoordinates.of(index)).delete();
+        } catch (RuntimeException e) {
+            LOG.warn("Could not delete the index {}: {}", index, e.getMessage());
+        }
+    }
+
+    public enum State {
+        PENDING,
+        LOADING,
+        SWAPPING,
+        DONE,
+        FAILED,
+    }
+
+    /**
+     * The status of a reindex.
+     *
+     * @param running whether the reindex is running.
+     * @param started when the reindex started.
+     * @param finished when the reindex finished, or {@code null}.
+     * @param indices the status of each index.
+     */
+    public record Status(boolean running, Instant started, Instant finished, List<IndexStatus> indices) {}
+
+    /**
+     * The status of the rebuild of an index.
+     *
+     * @param alias the name of the index, used by the application.
+     * @param index the name of the index being built.
+     * @param state the state of the rebuild.
+     * @param total the number of documents to index.
+     * @param indexed the number of documents indexed so far.
+     * @param error the error that stopped the rebuild, or {@code null}.
+     */
+    public record IndexStatus(String alias, String index, State state, long total, long indexed, String error) {}
+
+    private static final class Job {
+
+        private final Instant started;
+
+        private final List<IndexJob> indexJobs;
+
+        private volatile Instant finished;
+
+        private Job(Instant started, List<IndexJob> indexJobs) {
+            this.started = started;
+            this.indexJobs = indexJobs;
+        }
+    }
+
+    private static final class IndexJob {
+
+        private final Class<?> type;
+
+        private final String alias;
+
+        private final String index;
+
+        private final AtomicLong indexed = new AtomicLong();
+
+        private volatile State state = State.PENDING;
+
+        private volatile long total;
+
+        private volatile String error;
+
+        private IndexJob(Class<?> type, String alias, String index) {
+            this.type = type;
+            this.alias = alias;
+            this.index = index;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.sample.myapp.config.Constants;
 import com.sample.myapp.domain.Authority;
 import com.sample.myapp.domain.User;
 import com.sample.myapp.repository.AuthorityRepository;
+import com.sample.myapp.repository.UserLookupFilter;
 import com.sample.myapp.repository.UserRepository;
 import com.sample.myapp.repository.search.UserSearchRepository;
 import com.sample.myapp.security.AuthoritiesConstants;
@@ -44,18 +45,22 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
+    private final UserLookupFilter userLookupFilter;
+
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         UserSearchRepository userSearchRepository,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        CacheManager cacheManager,
+        UserLookupFilter userLookupFilter
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.userSearchRepository = userSearchRepository;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
+        this.userLookupFilter = userLookupFilter;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -66,7 +71,7 @@ public class UserService {
                 // activate given user for the registration key.
                 user.setActivated(true);
                 user.setActivationKey(null);
-                userSearchRepository.save(user);
+                userSearchRepository.index(user);
                 this.clearUserCaches(user);
                 LOG.debug("Activated user: {}", user);
                 return user;
@@ -88,6 +93,9 @@ public class UserService {
     }
 
     public Optional<User> requestPasswordReset(String mail) {
+        if (!userLookupFilter.mightContainEmail(mail)) {
+            return Optional.empty();
+        }
         return userRepository
             .findOneByEmailIgnoreCase(mail)
             .filter(User::isActivated)
@@ -100,22 +108,26 @@ public class UserService {
     }
 
     public User registerUser(AdminUserDTO userDTO, String password) {
-        userRepository
-            .findOneByLogin(userDTO.getLogin().toLowerCase())
-            .ifPresent(existingUser -> {
-                boolean removed = removeNonActivatedUser(existingUser);
-                if (!removed) {
-                    throw new UsernameAlreadyUsedException();
-                }
-            });
-        userRepository
-            .findOneByEmailIgnoreCase(userDTO.getEmail())
-            .ifPresent(existingUser -> {
-                boolean removed = removeNonActivatedUser(existingUser);
-                if (!removed) {
-                    throw new EmailAlreadyUsedException();
-                }
-            });
+        if (userLookupFilter.mightContainLogin(userDTO.getLogin())) {
+            userRepository
+                .findOneByLogin(userDTO.getLogin().toLowerCase())
+                .ifPresent(existingUser -> {
+                    boolean removed = removeNonActivatedUser(existingUser);
+                    if (!removed) {
+                        throw new UsernameAlreadyUsedException();
+                    }
+                });
+        }
+        if (userLookupFilter.mightContainEmail(userDTO.getEmail())) {
+            userRepository
+                .findOneByEmailIgnoreCase(userDTO.getEmail())
+                .ifPresent(existingUser -> {
+                    boolean removed = removeNonActivatedUser(existingUser);
+                    if (!removed) {
+                        throw new EmailAlreadyUsedException();
+                    }
+                });
+        }
         User newUser = new User();
         String encryptedPassword = passwordEncoder.encode(password);
         newUser.setLogin(userDTO.getLogin().toLowerCase());
@@ -136,7 +148,7 @@ public class UserService {
         authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(authorities::add);
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
-        userSearchRepository.save(newUser);
+        userSearchRepository.index(newUser);
         this.clearUserCaches(newUser);
         LOG.debug("Created Information for User: {}", newUser);
         return newUser;
@@ -1,6 +1,7 @@
 package com.sample.myapp.web.rest;
 
 import com.sample.myapp.domain.User;
+import com.sample.myapp.repository.UserLookupFilter;
 import com.sample.myapp.repository.UserRepository;
 import com.sample.myapp.security.SecurityUtils;
 import com.sample.myapp.service.MailService;
@@ -15,6 +16,7 @@ import java.util.*;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
@@ -40,10 +42,18 @@ public class AccountResource {
 
     private final MailService mailService;
 
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    private final UserLookupFilter userLookupFilter;
+
+    public AccountResource(
+        UserRepository userRepository,
+        UserService userService,
+        MailService mailService,
+        UserLookupFilter userLookupFilter
+    ) {
         this.userRepository = userRepository;
         this.userService = userService;
         this.mailService = mailService;
+        this.userLookupFilter = userLookupFilter;
     }
 
     /**
@@ -60,7 +70,15 @@ public class AccountResource {
         if (isPasswordLengthInvalid(managedUserVM.getPassword())) {
             throw new InvalidPasswordException();
         }
-        User user = userService.registerUser(managedUserVM, managedUserVM.getPassword());
+        User user;
+        try {
+            user = userService.registerUser(managedUserVM, managedUserVM.getPassword());
+        } catch (DataIntegrityViolationException e) {
+            // the user lookup filter missed a user written by another instance: register again, checking the database
+            LOG.debug("Registering {} again, as its login or email is used: {}", managedUserVM.getLogin(), e.getMessage());
+            userLookupFilter.add(managedUserVM.getLogin(), managedUserVM.getEmail());
+            user = userService.registerUser(managedUserVM, managedUserVM.getPassword());
+        }
         mailService.sendActivationEmail(user);
     }
 
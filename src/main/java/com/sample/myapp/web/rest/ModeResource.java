@@ -3,8 +3,12 @@ package com.sample.myapp.web.rest;
 import com.sample.myapp.domain.Mode;
 import com.sample.myapp.repository.ModeRepository;
 import com.sample.myapp.repository.search.ModeSearchRepository;
+import com.sample.myapp.repository.search.SearchSlice;
 import com.sample.myapp.web.rest.errors.BadRequestAlertException;
 import com.sample.myapp.web.rest.errors.ElasticsearchExceptionMapper;
+import com.sample.myapp.web.rest.util.CursorPaginationUtil;
+import com.sample.myapp.web.rest.util.SearchPaginationUtil;
+import com.sample.myapp.web.rest.util.SearchPaginationUtil.SearchCursor;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
@@ -12,14 +16,20 @@ import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -71,14 +81,19 @@ public class ModeResource {
      *
      * @param id the id of the mode to save.
      * @param mode the mode to update.
+     * @param webRequest the current request, possibly with an {@code If-Match} header.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated mode,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the current mode,
      * or with status {@code 400 (Bad Request)} if the mode is not valid,
      * or with status {@code 500 (Internal Server Error)} if the mode couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Mode> updateMode(@PathVariable(value = "id", required = false) final Long id, @Valid @RequestBody Mode mode)
-        throws URISyntaxException {
+    public ResponseEntity<Mode> updateMode(
+        @PathVariable(value = "id", required = false) final Long id,
+        @Valid @RequestBody Mode mode,
+        WebRequest webRequest
+    ) throws URISyntaxException {
         LOG.debug("REST request to update Mode : {}, {}", id, mode);
         if (mode.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -87,13 +102,23 @@ public class ModeResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!modeRepository.existsById(id)) {
+        Optional<Long> currentVersion = modeRepository.findVersionById(id);
+        if (currentVersion.isEmpty()) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        if (webRequest.checkNotModified(currentVersion.get().toString())) {
+            // the If-Match header does not match: 412 (Precondition Failed)
+            return null;
+        }
 
-        mode = modeRepository.save(mode);
+        if (mode.getVersion() == null) {
+            // unconditional update
+            mode.setVersion(currentVersion.get());
+        }
+        mode = modeRepository.saveAndFlush(mode);
         modeSearchRepository.index(mode);
         return ResponseEntity.ok()
+            .eTag(mode.getVersion().toString())
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, mode.getId().toString()))
             .body(mode);
     }
@@ -103,7 +128,9 @@ public class ModeResource {
      *
      * @param id the id of the mode to save.
      * @param mode the mode to update.
+     * @param webRequest the current request, possibly with an {@code If-Match} header.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated mode,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the current mode,
      * or with status {@code 400 (Bad Request)} if the mode is not valid,
      * or with status {@code 404 (Not Found)} if the mode is not found,
      * or with status {@code 500 (Internal Server Error)} if the mode couldn't be updated.
@@ -112,7 +139,8 @@ public class ModeResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Mode> partialUpdateMode(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody Mode mode
+        @NotNull @RequestBody Mode mode,
+        WebRequest webRequest
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Mode partially : {}, {}", id, mode);
         if (mode.getId() == null) {
@@ -122,9 +150,14 @@ public class ModeResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!modeRepository.existsById(id)) {
+        Optional<Long> currentVersion = modeRepository.findVersionById(id);
+        if (currentVersion.isEmpty()) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        if (webRequest.checkNotModified(currentVersion.get().toString())) {
+            // the If-Match header does not match: 412 (Precondition Failed)
+            return null;
+        }
 
         Optional<Mode> result = modeRepository
             .findById(mode.getId())
@@ -138,16 +171,15 @@ public class ModeResource {
 
                 return existingMode;
             })
-            .map(modeRepository::save)
+            .map(modeRepository::saveAndFlush)
             .map(savedMode -> {
                 modeSearchRepository.index(savedMode);
                 return savedMode;
             });
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, mode.getId().toString())
-        );
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, mode.getId().toString());
+        result.ifPresent(savedMode -> headers.setETag(ETag.quoteETagIfNecessary(savedMode.getVersion().toString())));
+        return ResponseUtil.wrapOrNotFound(result, headers);
     }
 
     /**
@@ -157,6 +189,7 @@ public class ModeResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modes in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
     public List<Mode> getAllModes(@RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload) {
         LOG.debug("REST request to get all Modes");
         if (eagerload) {
@@ -168,13 +201,22 @@ public class ModeResource {
 
     /**
      * {@code GET  /modes/:id} : get the "id" mode.
+     * <p>
+     * The response has an {@code ETag} header, and status {@code 304 (Not Modified)} if it matches the
+     * {@code If-None-Match} header of the request: the mode is then not loaded.
      *
      * @param id the id of the mode to retrieve.
+     * @param webRequest the current request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the mode, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Mode> getMode(@PathVariable("id") Long id) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<Mode> getMode(@PathVariable("id") Long id, WebRequest webRequest) {
         LOG.debug("REST request to get Mode : {}", id);
+        Optional<Long> currentVersion = modeRepository.findVersionById(id);
+        if (currentVersion.isPresent() && webRequest.checkNotModified(currentVersion.get().toString())) {
+            return null;
+        }
         Optional<Mode> mode = modeRepository.findOneWithEagerRelationships(id);
         return ResponseUtil.wrapOrNotFound(mode);
     }
@@ -198,17 +240,43 @@ public class ModeResource {
     /**
      * {@code SEARCH  /modes/_search?query=:query} : search for the mode corresponding
      * to the query.
+     * <p>
+     * Results are paged, by pages of at most {@code 100} modes; with {@code scroll=true}, or with the {@code after}
+     * cursor of a previous slice, they are instead read one slice at a time, sorted by relevance, the cursor of the
+     * next slice being sent in the {@code Link} header.
      *
      * @param query the query of the mode search.
+     * @param scroll whether to read the results one slice at a time.
+     * @param after the cursor returned with the previous slice.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public List<Mode> searchModes(@RequestParam("query") String query) {
-        LOG.debug("REST request to search Modes for query {}", query);
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<Mode>> searchModes(
+        @RequestParam("query") String query,
+        @RequestParam(name = "scroll", required = false, defaultValue = "false") boolean scroll,
+        @RequestParam(name = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search for a page of Modes for query {}", query);
         try {
-            return StreamSupport.stream(modeSearchRepository.search(query).spliterator(), false).toList();
+            if (scroll || after != null) {
+                return scrollModes(query, after, pageable.getPageSize());
+            }
+            Page<Mode> page = modeSearchRepository.search(query, SearchPaginationUtil.boundedPageable(pageable, ENTITY_NAME));
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
     }
+
+    private ResponseEntity<List<Mode>> scrollModes(String query, String after, int size) {
+        int limit = SearchPaginationUtil.boundedSize(size);
+        SearchCursor cursor = after != null ? SearchPaginationUtil.decodeSearchCursor(after, ENTITY_NAME) : SearchCursor.FIRST;
+        SearchSlice<Mode> slice = modeSearchRepository.searchAfter(query, cursor.pointInTimeId(), cursor.sortValues(), limit);
+        HttpHeaders headers = SearchPaginationUtil.generateSearchCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice, limit);
+        return ResponseEntity.ok().headers(headers).body(slice.content());
+    }
 }
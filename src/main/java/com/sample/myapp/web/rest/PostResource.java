@@ -1,26 +1,60 @@
 package com.sample.myapp.web.rest;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sample.myapp.domain.Post;
+import com.sample.myapp.domain.PostSummary;
 import com.sample.myapp.repository.PostRepository;
+import com.sample.myapp.repository.search.PostSearchFilter;
+import com.sample.myapp.repository.search.PostSearchHit;
 import com.sample.myapp.repository.search.PostSearchRepository;
+import com.sample.myapp.repository.search.PostSearchResult;
+import com.sample.myapp.repository.search.SearchSlice;
+import com.sample.myapp.service.PostBulkService;
+import com.sample.myapp.service.PostExportService;
+import com.sample.myapp.service.dto.BulkItemResultDTO;
 import com.sample.myapp.web.rest.errors.BadRequestAlertException;
 import com.sample.myapp.web.rest.errors.ElasticsearchExceptionMapper;
+import com.sample.myapp.web.rest.util.ByteRangeUtil;
+import com.sample.myapp.web.rest.util.CursorPaginationUtil;
+import com.sample.myapp.web.rest.util.SearchPaginationUtil;
+import com.sample.myapp.web.rest.util.SearchPaginationUtil.SearchCursor;
+import com.sample.myapp.web.rest.vm.FacetedPostsVM;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ETag;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -38,6 +72,17 @@ public class PostResource {
 
     private static final String ENTITY_NAME = "post";
 
+    private static final int MAX_SCROLL_SIZE = 100;
+
+    /**
+     * Elasticsearch date math relative to the current time, such as {@code now-7d/d}.
+     */
+    private static final Pattern DATE_MATH = Pattern.compile("now([+-]\\d+[yMwdhHms])*(/[yMwdhHms])?");
+
+    private static final int MAX_CONTENT_RANGE_LENGTH = 1024 * 1024;
+
+    private static final int CONTENT_BUFFER_SIZE = 8192;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -45,9 +90,24 @@ public class PostResource {
 
     private final PostSearchRepository postSearchRepository;
 
-    public PostResource(PostRepository postRepository, PostSearchRepository postSearchRepository) {
+    private final PostBulkService postBulkService;
+
+    private final PostExportService postExportService;
+
+    private final ObjectMapper objectMapper;
+
+    public PostResource(
+        PostRepository postRepository,
+        PostSearchRepository postSearchRepository,
+        PostBulkService postBulkService,
+        PostExportService postExportService,
+        ObjectMapper objectMapper
+    ) {
         this.postRepository = postRepository;
         this.postSearchRepository = postSearchRepository;
+        this.postBulkService = postBulkService;
+        this.postExportService = postExportService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -63,26 +123,53 @@ public class PostResource {
         if (post.getId() != null) {
             throw new BadRequestAlertException("A new post cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        post = postRepository.save(post);
+        // flushed so that a missing mode or tag is reported before the references are loaded
+        post = postRepository.saveAndFlush(postRepository.resolveRelationshipReferences(post));
+        postRepository.initializeRelationships(post);
         postSearchRepository.index(post);
         return ResponseEntity.created(new URI("/api/posts/" + post.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, post.getId().toString()))
             .body(post);
     }
 
+    /**
+     * {@code POST  /posts/_bulk} : Create new posts, from a JSON array or from newline-delimited JSON.
+     * <p>
+     * The request is read as a stream, and posts are saved and indexed by chunks: the posts of the chunks saved before
+     * an error are kept.
+     *
+     * @param request the request, with the posts to create in its body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each post, in order:
+     * with status {@code 201} and the id of the new post, or with status {@code 400} and the reason why the post is not valid.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/_bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<List<BulkItemResultDTO>> createPosts(HttpServletRequest request) throws IOException {
+        LOG.debug("REST request to save Posts in bulk");
+        try (MappingIterator<Post> posts = objectMapper.readerFor(Post.class).readValues(request.getInputStream())) {
+            return ResponseEntity.ok(postBulkService.createAll(posts));
+        }
+    }
+
     /**
      * {@code PUT  /posts/:id} : Updates an existing post.
      *
      * @param id the id of the post to save.
      * @param post the post to update.
+     * @param webRequest the current request, possibly with an {@code If-Match} header.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated post,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the current post,
      * or with status {@code 400 (Bad Request)} if the post is not valid,
      * or with status {@code 500 (Internal Server Error)} if the post couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Post> updatePost(@PathVariable(value = "id", required = false) final Long id, @Valid @RequestBody Post post)
-        throws URISyntaxException {
+    public ResponseEntity<Post> updatePost(
+        @PathVariable(value = "id", required = false) final Long id,
+        @Valid @RequestBody Post post,
+        WebRequest webRequest
+    ) throws URISyntaxException {
         LOG.debug("REST request to update Post : {}, {}", id, post);
         if (post.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -91,13 +178,24 @@ public class PostResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!postRepository.existsById(id)) {
+        Optional<String> currentETag = postRepository.findRepresentationVersionById(id);
+        if (currentETag.isEmpty()) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        if (webRequest.checkNotModified(currentETag.get())) {
+            // the If-Match header does not match: 412 (Precondition Failed)
+            return null;
+        }
 
-        post = postRepository.save(post);
+        if (post.getVersion() == null) {
+            // unconditional update
+            post.setVersion(postRepository.findVersionById(id).orElseThrow());
+        }
+        post = postRepository.saveAndFlush(postRepository.resolveRelationshipReferences(post));
+        postRepository.initializeRelationships(post);
         postSearchRepository.index(post);
         return ResponseEntity.ok()
+            .eTag(postRepository.findRepresentationVersionById(post.getId()).orElseThrow())
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, post.getId().toString()))
             .body(post);
     }
@@ -107,7 +205,9 @@ public class PostResource {
      *
      * @param id the id of the post to save.
      * @param post the post to update.
+     * @param webRequest the current request, possibly with an {@code If-Match} header.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated post,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the current post,
      * or with status {@code 400 (Bad Request)} if the post is not valid,
      * or with status {@code 404 (Not Found)} if the post is not found,
      * or with status {@code 500 (Internal Server Error)} if the post couldn't be updated.
@@ -116,7 +216,8 @@ public class PostResource {
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Post> partialUpdatePost(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody Post post
+        @NotNull @RequestBody Post post,
+        WebRequest webRequest
     ) throws URISyntaxException {
         LOG.debug("REST request to partial update Post partially : {}, {}", id, post);
         if (post.getId() == null) {
@@ -126,9 +227,14 @@ public class PostResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!postRepository.existsById(id)) {
+        Optional<String> currentETag = postRepository.findRepresentationVersionById(id);
+        if (currentETag.isEmpty()) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        if (webRequest.checkNotModified(currentETag.get())) {
+            // the If-Match header does not match: 412 (Precondition Failed)
+            return null;
+        }
 
         Optional<Post> result = postRepository
             .findById(post.getId())
@@ -145,16 +251,17 @@ public class PostResource {
 
                 return existingPost;
             })
-            .map(postRepository::save)
+            .map(postRepository::saveAndFlush)
             .map(savedPost -> {
                 postSearchRepository.index(savedPost);
                 return savedPost;
             });
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, post.getId().toString())
-        );
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, post.getId().toString());
+        result
+            .flatMap(savedPost -> postRepository.findRepresentationVersionById(savedPost.getId()))
+            .ifPresent(eTag -> headers.setETag(ETag.quoteETagIfNecessary(eTag)));
+        return ResponseUtil.wrapOrNotFound(result, headers);
     }
 
     /**
@@ -165,6 +272,7 @@ public class PostResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of posts in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
     public ResponseEntity<List<Post>> getAllPosts(
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
         @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload
@@ -180,19 +288,238 @@ public class PostResource {
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /posts/_summary} : get all the posts, without their content.
+     * <p>
+     * List screens only need an excerpt of each post; the full content is available through {@link #getPost(Long)}.
+     *
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of post summaries in body.
+     */
+    @GetMapping("/_summary")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<PostSummary>> getAllPostSummaries(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+        LOG.debug("REST request to get a page of Post summaries");
+        Page<PostSummary> page = postRepository.findAllSummaries(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /posts/_scroll} : get the posts, newest first, one slice at a time.
+     * <p>
+     * Unlike {@link #getAllPosts(Pageable, boolean)}, slices are located by seeking on {@code (date, id)} instead of
+     * using an offset, and no total count is computed. The cursor of the next slice is sent in the {@code Link} header.
+     *
+     * @param after the cursor returned with the previous slice, or {@code null} to get the first slice.
+     * @param size the maximum number of posts in the slice.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of posts in body.
+     */
+    @GetMapping("/_scroll")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<Post>> scrollPosts(
+        @RequestParam(name = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(name = "size", required = false, defaultValue = "20") int size
+    ) {
+        LOG.debug("REST request to get a slice of Posts after {}", after);
+        int limit = Math.min(Math.max(size, 1), MAX_SCROLL_SIZE);
+        Instant afterDate = null;
+        Long afterId = null;
+        if (after != null) {
+            List<String> cursor = CursorPaginationUtil.decodeCursor(after, 2, ENTITY_NAME);
+            try {
+                afterDate = Instant.parse(cursor.get(0));
+                afterId = Long.valueOf(cursor.get(1));
+            } catch (RuntimeException e) {
+                throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+            }
+        }
+        // fetch one extra post to know whether there is a next slice
+        List<Post> posts = postRepository.findAllWithEagerRelationshipsAfter(afterDate, afterId, Limit.of(limit + 1));
+        String nextCursor = null;
+        if (posts.size() > limit) {
+            posts = posts.subList(0, limit);
+            Post last = posts.get(limit - 1);
+            nextCursor = CursorPaginationUtil.encodeCursor(last.getDate(), last.getId());
+        }
+        HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("size", limit),
+            nextCursor
+        );
+        return ResponseEntity.ok().headers(headers).body(posts);
+    }
+
+    /**
+     * {@code GET  /posts/_export} : export the posts as newline-delimited JSON, newest first.
+     * <p>
+     * Posts are streamed slice by slice, so that any number of posts can be exported; the export is compressed with
+     * gzip if the client accepts it.
+     *
+     * @param from the start of the period of the posts to export, included.
+     * @param to the end of the period of the posts to export, excluded.
+     * @param modeId the id of the mode of the posts to export.
+     * @param acceptEncoding the {@code Accept-Encoding} header of the request.
+     * @param response the response the posts are written to, with status {@code 200 (OK)}.
+     * @throws IOException if the posts cannot be written.
+     */
+    @GetMapping(value = "/_export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportPosts(
+        @RequestParam(name = "from", required = false) Instant from,
+        @RequestParam(name = "to", required = false) Instant to,
+        @RequestParam(name = "modeId", required = false) Long modeId,
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        HttpServletResponse response
+    ) throws IOException {
+        LOG.debug("REST request to export Posts from {} to {} of Mode {}", from, to, modeId);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestAlertException("Invalid period", ENTITY_NAME, "periodinvalid");
+        }
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            try (OutputStream out = new GZIPOutputStream(response.getOutputStream(), CONTENT_BUFFER_SIZE)) {
+                postExportService.export(from, to, modeId, out);
+            }
+        } else {
+            postExportService.export(from, to, modeId, response.getOutputStream());
+        }
+    }
+
     /**
      * {@code GET  /posts/:id} : get the "id" post.
+     * <p>
+     * The response has an {@code ETag} header, and status {@code 304 (Not Modified)} if it matches the
+     * {@code If-None-Match} header of the request: the post is then not loaded.
      *
      * @param id the id of the post to retrieve.
+     * @param webRequest the current request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the post, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Post> getPost(@PathVariable("id") Long id) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<Post> getPost(@PathVariable("id") Long id, WebRequest webRequest) {
         LOG.debug("REST request to get Post : {}", id);
+        Optional<String> currentETag = postRepository.findRepresentationVersionById(id);
+        if (currentETag.isPresent() && webRequest.checkNotModified(currentETag.get())) {
+            return null;
+        }
         Optional<Post> post = postRepository.findOneWithEagerRelationships(id);
         return ResponseUtil.wrapOrNotFound(post);
     }
 
+    /**
+     * {@code GET  /posts/:id/content} : get the content of the "id" post, as plain text.
+     * <p>
+     * The content is streamed from the database, so that large posts are never loaded in memory as a whole. It is
+     * compressed with gzip if the client accepts it, and a single range of bytes can be requested with a {@code Range}
+     * header; ranges are truncated to {@value #MAX_CONTENT_RANGE_LENGTH} bytes.
+     *
+     * @param id the id of the post.
+     * @param rangeHeader the {@code Range} header of the request.
+     * @param acceptEncoding the {@code Accept-Encoding} header of the request.
+     * @param response the response the content is written to, with status {@code 200 (OK)} or {@code 206 (Partial Content)},
+     * or with status {@code 416 (Range Not Satisfiable)} if the range starts after the end of the content,
+     * or with status {@code 404 (Not Found)}.
+     * @throws IOException if the content cannot be written.
+     */
+    @GetMapping(value = "/{id}/content", produces = MediaType.TEXT_PLAIN_VALUE)
+    @Transactional(readOnly = true)
+    public void getPostContent(
+        @PathVariable("id") Long id,
+        @RequestHeader(name = HttpHeaders.RANGE, required = false) String rangeHeader,
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        HttpServletResponse response
+    ) throws IOException {
+        LOG.debug("REST request to get the content of Post : {}", id);
+        ByteRangeUtil.ByteRange range = ByteRangeUtil.parseRange(rangeHeader);
+        boolean found = postRepository.readContent(id, content -> {
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (range != null) {
+                writeContentRange(content, range, response);
+            } else if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                try (
+                    Writer writer = new OutputStreamWriter(
+                        new GZIPOutputStream(response.getOutputStream(), CONTENT_BUFFER_SIZE),
+                        StandardCharsets.UTF_8
+                    )
+                ) {
+                    content.transferTo(writer);
+                }
+            } else {
+                Writer writer = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+                content.transferTo(writer);
+                writer.flush();
+            }
+        });
+        if (!found) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    private static void writeContentRange(Reader content, ByteRangeUtil.ByteRange range, HttpServletResponse response)
+        throws IOException {
+        ByteRangeUtil.RangeBuffer buffer = new ByteRangeUtil.RangeBuffer(range, MAX_CONTENT_RANGE_LENGTH);
+        Writer writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8);
+        char[] chars = new char[CONTENT_BUFFER_SIZE];
+        boolean complete = false;
+        while (!complete && !buffer.isFull()) {
+            int read = content.read(chars);
+            if (read == -1) {
+                complete = true;
+            } else {
+                writer.write(chars, 0, read);
+                writer.flush();
+            }
+        }
+        byte[] bytes = buffer.toByteArray();
+        if (bytes.length == 0) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, ByteRangeUtil.unsatisfiedContentRange(buffer.getPosition()));
+            return;
+        }
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        response.setHeader(
+            HttpHeaders.CONTENT_RANGE,
+            ByteRangeUtil.contentRange(range.first(), range.first() + bytes.length - 1, complete ? buffer.getPosition() : -1)
+        );
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    /**
+     * {@code PUT  /posts/:id/content} : Updates the content of an existing post, sent as plain text.
+     * <p>
+     * The content is streamed to the database without being loaded in memory as a whole. To create a post with a large
+     * content, create it with an empty content first.
+     *
+     * @param id the id of the post to update.
+     * @param request the request whose body is the new content.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)},
+     * or with status {@code 400 (Bad Request)} if the post is not found.
+     * @throws IOException if the content cannot be read.
+     */
+    @PutMapping(value = "/{id}/content", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<Void> updatePostContent(@PathVariable("id") Long id, HttpServletRequest request) throws IOException {
+        LOG.debug("REST request to update the content of Post : {}", id);
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        if (!postRepository.writeContent(id, request.getReader())) {
+            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        }
+        postRepository.findById(id).ifPresent(postSearchRepository::index);
+        return ResponseEntity.noContent()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, id.toString()))
+            .build();
+    }
+
     /**
      * {@code DELETE  /posts/:id} : delete the "id" post.
      *
@@ -212,23 +539,163 @@ public class PostResource {
     /**
      * {@code SEARCH  /posts/_search?query=:query} : search for the post corresponding
      * to the query.
+     * <p>
+     * Pages hold at most {@code 100} posts, and cannot go past the {@code 10000}th result.
+     * <p>
+     * With {@code scroll=true}, or with the {@code after} cursor of a previous slice, the results are instead read
+     * one slice at a time, sorted by relevance, at a constant cost whatever the depth of the slice: no total count is
+     * computed, and the cursor of the next slice is sent in the {@code Link} header. A cursor is valid for
+     * {@code 5} minutes after its slice was read.
      *
      * @param query the query of the post search.
+     * @param scroll whether to read the results one slice at a time.
+     * @param after the cursor returned with the previous slice.
      * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
+    @Transactional(readOnly = true)
     public ResponseEntity<List<Post>> searchPosts(
         @RequestParam("query") String query,
+        @RequestParam(name = "scroll", required = false, defaultValue = "false") boolean scroll,
+        @RequestParam(name = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to search for a page of Posts for query {}", query);
         try {
-            Page<Post> page = postSearchRepository.search(query, pageable);
+            if (scroll || after != null) {
+                return scrollPosts(query, after, pageable.getPageSize());
+            }
+            Page<Post> page = postSearchRepository.search(query, SearchPaginationUtil.boundedPageable(pageable, ENTITY_NAME));
             HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
             return ResponseEntity.ok().headers(headers).body(page.getContent());
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
     }
+
+    private ResponseEntity<List<Post>> scrollPosts(String query, String after, int size) {
+        int limit = SearchPaginationUtil.boundedSize(size);
+        SearchCursor cursor = after != null ? SearchPaginationUtil.decodeSearchCursor(after, ENTITY_NAME) : SearchCursor.FIRST;
+        SearchSlice<Post> slice = postSearchRepository.searchAfter(query, cursor.pointInTimeId(), cursor.sortValues(), limit);
+        HttpHeaders headers = SearchPaginationUtil.generateSearchCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice, limit);
+        return ResponseEntity.ok().headers(headers).body(slice.content());
+    }
+
+    /**
+     * {@code SEARCH  /posts/_search/highlighted?query=:query} : search for the posts corresponding to the query, without
+     * their content.
+     * <p>
+     * Unlike {@link #searchPosts(String, boolean, String, Pageable)}, the content of the posts is neither read from
+     * Elasticsearch nor returned: each post comes with up to {@code 3} highlighted fragments of its title and content.
+     *
+     * @param query the query of the post search.
+     * @param pageable the pagination information.
+     * @return the result of the search.
+     */
+    @GetMapping("/_search/highlighted")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<PostSearchHit>> searchHighlightedPosts(
+        @RequestParam("query") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search for a page of highlighted Posts for query {}", query);
+        try {
+            Page<PostSearchHit> page = postSearchRepository.searchHighlighted(query, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code GET  /posts/_find} : search for the posts matching structured criteria.
+     * <p>
+     * Unlike {@link #searchPosts(String, boolean, String, Pageable)}, no query string is parsed: the title and
+     * content terms are matched as full text, and the tags, mode and dates filter the posts without being scored, so
+     * that Elasticsearch caches them. Dates rounded with date math, such as {@code from=now-7d/d}, keep being cached
+     * for the whole rounding period.
+     *
+     * @param title terms to look for in the title.
+     * @param content terms to look for in the content.
+     * @param tags names of tags the posts must all have.
+     * @param mode name of the mode of the posts.
+     * @param from the oldest date of the posts, included.
+     * @param to the newest date of the posts, excluded.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of posts in body.
+     */
+    @GetMapping("/_find")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<Post>> findPosts(
+        @RequestParam(name = "title", required = false) String title,
+        @RequestParam(name = "content", required = false) String content,
+        @RequestParam(name = "tag", required = false) List<String> tags,
+        @RequestParam(name = "mode", required = false) String mode,
+        @RequestParam(name = "from", required = false) String from,
+        @RequestParam(name = "to", required = false) String to,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to find a page of Posts");
+        PostSearchFilter filter = new PostSearchFilter(title, content, tags, mode, checkDate(from, "from"), checkDate(to, "to"));
+        try {
+            Page<Post> page = postSearchRepository.search(filter, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    /**
+     * {@code GET  /posts/_find/faceted} : search for the posts matching structured criteria, with the number of matching
+     * posts by tag, mode and month.
+     * <p>
+     * The facets are computed by the same Elasticsearch request as the page of posts, over all the matching posts.
+     *
+     * @param title terms to look for in the title.
+     * @param content terms to look for in the content.
+     * @param tags names of tags the posts must all have.
+     * @param mode name of the mode of the posts.
+     * @param from the oldest date of the posts, included.
+     * @param to the newest date of the posts, excluded.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the posts with the facets in body.
+     */
+    @GetMapping("/_find/faceted")
+    @Transactional(readOnly = true)
+    public ResponseEntity<FacetedPostsVM> findFacetedPosts(
+        @RequestParam(name = "title", required = false) String title,
+        @RequestParam(name = "content", required = false) String content,
+        @RequestParam(name = "tag", required = false) List<String> tags,
+        @RequestParam(name = "mode", required = false) String mode,
+        @RequestParam(name = "from", required = false) String from,
+        @RequestParam(name = "to", required = false) String to,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to find a page of Posts with facets");
+        PostSearchFilter filter = new PostSearchFilter(title, content, tags, mode, checkDate(from, "from"), checkDate(to, "to"));
+        try {
+            PostSearchResult result = postSearchRepository.searchWithFacets(filter, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                result.page()
+            );
+            return ResponseEntity.ok().headers(headers).body(new FacetedPostsVM(result.page().getContent(), result.facets()));
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
+    }
+
+    private static String checkDate(String date, String name) {
+        if (date == null || DATE_MATH.matcher(date).matches()) {
+            return date;
+        }
+        try {
+            return Instant.parse(date).toString();
+        } catch (DateTimeParseException e) {
+            throw new BadRequestAlertException("Invalid " + name + " date", ENTITY_NAME, "dateinvalid");
+        }
+    }
 }
@@ -1,10 +1,15 @@
 package com.sample.myapp.web.rest;
 
+import com.sample.myapp.domain.User;
+import com.sample.myapp.repository.search.SearchSlice;
 import com.sample.myapp.repository.search.UserSearchRepository;
 import com.sample.myapp.service.UserService;
 import com.sample.myapp.service.dto.UserDTO;
+import com.sample.myapp.web.rest.errors.ElasticsearchExceptionMapper;
+import com.sample.myapp.web.rest.util.CursorPaginationUtil;
+import com.sample.myapp.web.rest.util.SearchPaginationUtil;
+import com.sample.myapp.web.rest.util.SearchPaginationUtil.SearchCursor;
 import java.util.*;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -27,6 +32,8 @@ public class PublicUserResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(PublicUserResource.class);
 
+    private static final String ENTITY_NAME = "user";
+
     private final UserService userService;
     private final UserSearchRepository userSearchRepository;
 
@@ -59,12 +66,42 @@ public class PublicUserResource {
 
     /**
      * {@code SEARCH /users/_search/:query} : search for the User corresponding to the query.
+     * <p>
+     * Results are paged, by pages of at most {@code 100} users; with {@code scroll=true}, or with the {@code after}
+     * cursor of a previous slice, they are instead read one slice at a time, sorted by relevance, the cursor of the
+     * next slice being sent in the {@code Link} header.
      *
      * @param query the query to search.
+     * @param scroll whether to read the results one slice at a time.
+     * @param after the cursor returned with the previous slice.
+     * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/users/_search/{query}")
-    public List<UserDTO> search(@PathVariable("query") String query) {
-        return StreamSupport.stream(userSearchRepository.search(query).spliterator(), false).map(UserDTO::new).toList();
+    public ResponseEntity<List<UserDTO>> search(
+        @PathVariable("query") String query,
+        @RequestParam(name = "scroll", required = false, defaultValue = "false") boolean scroll,
+        @RequestParam(name = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search for a page of Users for query {}", query);
+        try {
+            if (scroll || after != null) {
+                int limit = SearchPaginationUtil.boundedSize(pageable.getPageSize());
+                SearchCursor cursor = after != null ? SearchPaginationUtil.decodeSearchCursor(after, ENTITY_NAME) : SearchCursor.FIRST;
+                SearchSlice<User> slice = userSearchRepository.searchAfter(query, cursor.pointInTimeId(), cursor.sortValues(), limit);
+                HttpHeaders headers = SearchPaginationUtil.generateSearchCursorHttpHeaders(
+                    ServletUriComponentsBuilder.fromCurrentRequest(),
+                    slice,
+                    limit
+                );
+                return ResponseEntity.ok().headers(headers).body(slice.content().stream().map(UserDTO::new).toList());
+            }
+            Page<User> page = userSearchRepository.search(query, SearchPaginationUtil.boundedPageable(pageable, ENTITY_NAME));
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent().stream().map(UserDTO::new).toList());
+        } catch (RuntimeException e) {
+            throw ElasticsearchExceptionMapper.mapException(e);
+        }
     }
 }
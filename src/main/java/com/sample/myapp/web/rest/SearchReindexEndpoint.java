@@ -0,0 +1,47 @@
+package com.sample.myapp.web.rest;
+
+import com.sample.myapp.service.SearchReindexService;
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint rebuilding the search indices, restricted to administrators with the rest of {@code /management}.
+ * <p>
+ * {@code POST /management/reindex} starts rebuilding all the indices, or only the ones listed in the {@code indices}
+ * property of its body, and {@code GET /management/reindex} reports the progress of the rebuild.
+ */
+@Component
+@Endpoint(id = "reindex")
+public class SearchReindexEndpoint {
+
+    private final SearchReindexService searchReindexService;
+
+    public SearchReindexEndpoint(SearchReindexService searchReindexService) {
+        this.searchReindexService = searchReindexService;
+    }
+
+    @ReadOperation
+    public SearchReindexService.Status status() {
+        return searchReindexService.getStatus();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Object> reindex(@Nullable List<String> indices) {
+        List<String> indexNames = indices != null ? indices : List.of();
+        if (!searchReindexService.getIndexNames().containsAll(indexNames)) {
+            return new WebEndpointResponse<>(
+                "Unknown index, expected one of " + searchReindexService.getIndexNames(),
+                WebEndpointResponse.STATUS_BAD_REQUEST
+            );
+        }
+        return searchReindexService
+            .start(indexNames)
+            .<WebEndpointResponse<Object>>map(status -> new WebEndpointResponse<>(status, WebEndpointResponse.STATUS_OK))
+            .orElseGet(() -> new WebEndpointResponse<>(searchReindexService.getStatus(), 409));
+    }
+}
@@ -2,9 +2,13 @@ package com.sample.myapp.web.rest;
 
 import com.sample.myapp.domain.Tag;
 import com.sample.myapp.repository.TagRepository;
+import com.sample.myapp.repository.search.SearchSlice;
 import com.sample.myapp.repository.search.TagSearchRepository;
 import com.sample.myapp.web.rest.errors.BadRequestAlertException;
 import com.sample.myapp.web.rest.errors.ElasticsearchExceptionMapper;
+import com.sample.myapp.web.rest.util.CursorPaginationUtil;
+import com.sample.myapp.web.rest.util.SearchPaginationUtil;
+import com.sample.myapp.web.rest.util.SearchPaginationUtil.SearchCursor;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
@@ -17,10 +21,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ETag;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -75,14 +81,19 @@ public class TagResource {
      *
      * @param id the id of the tag to save.
      * @param tag the tag to update.
+     * @param webRequest the current request, possibly with an {@code If-Match} header.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated tag,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the current tag,
      * or with status {@code 400 (Bad Request)} if the tag is not valid,
      * or with status {@code 500 (Internal Server Error)} if the tag couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Tag> updateTag(@PathVariable(value = "id", required = false) final Long id, @Valid @RequestBody Tag tag)
-        throws URISyntaxException {
+    public ResponseEntity<Tag> updateTag(
+        @PathVariable(value = "id", required = false) final Long id,
+        @Valid @RequestBody Tag tag,
+        WebRequest webRequest
+    ) throws URISyntaxException {
         LOG.debug("REST request to update Tag : {}, {}", id, tag);
         if (tag.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -91,13 +102,23 @@ public class TagResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!tagRepository.existsById(id)) {
+        Optional<Long> currentVersion = tagRepository.findVersionById(id);
+        if (currentVersion.isEmpty()) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        if (webRequest.checkNotModified(currentVersion.get().toString())) {
+            // the If-Match header does not match: 412 (Precondition Failed)
+            return null;
+        }
 
-        tag = tagRepository.save(tag);
+        if (tag.getVersion() == null) {
+            // unconditional update
+            tag.setVersion(currentVersion.get());
+        }
+        tag = tagRepository.saveAndFlush(tag);
         tagSearchRepository.index(tag);
         return ResponseEntity.ok()
+            .eTag(tag.getVersion().toString())
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, tag.getId().toString()))
             .body(tag);
     }
@@ -107,15 +128,20 @@ public class TagResource {
      *
      * @param id the id of the tag to save.
      * @param tag the tag to update.
+     * @param webRequest the current request, possibly with an {@code If-Match} header.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated tag,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the current tag,
      * or with status {@code 400 (Bad Request)} if the tag is not valid,
      * or with status {@code 404 (Not Found)} if the tag is not found,
      * or with status {@code 500 (Internal Server Error)} if the tag couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
-    public ResponseEntity<Tag> partialUpdateTag(@PathVariable(value = "id", required = false) final Long id, @NotNull @RequestBody Tag tag)
-        throws URISyntaxException {
+    public ResponseEntity<Tag> partialUpdateTag(
+        @PathVariable(value = "id", required = false) final Long id,
+        @NotNull @RequestBody Tag tag,
+        WebRequest webRequest
+    ) throws URISyntaxException {
         LOG.debug("REST request to partial update Tag partially : {}, {}", id, tag);
         if (tag.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -124,9 +150,14 @@ public class TagResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!tagRepository.existsById(id)) {
+        Optional<Long> currentVersion = tagRepository.findVersionById(id);
+        if (currentVersion.isEmpty()) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        if (webRequest.checkNotModified(currentVersion.get().toString())) {
+            // the If-Match header does not match: 412 (Precondition Failed)
+            return null;
+        }
 
         Optional<Tag> result = tagRepository
             .findById(tag.getId())
@@ -137,16 +168,15 @@ public class TagResource {
 
                 return existingTag;
             })
-            .map(tagRepository::save)
+            .map(tagRepository::saveAndFlush)
             .map(savedTag -> {
                 tagSearchRepository.index(savedTag);
                 return savedTag;
             });
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, tag.getId().toString())
-        );
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, tag.getId().toString());
+        result.ifPresent(savedTag -> headers.setETag(ETag.quoteETagIfNecessary(savedTag.getVersion().toString())));
+        return ResponseUtil.wrapOrNotFound(result, headers);
     }
 
     /**
@@ -156,6 +186,7 @@ public class TagResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of tags in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
     public ResponseEntity<List<Tag>> getAllTags(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
         LOG.debug("REST request to get a page of Tags");
         Page<Tag> page = tagRepository.findAll(pageable);
@@ -165,13 +196,22 @@ public class TagResource {
 
     /**
      * {@code GET  /tags/:id} : get the "id" tag.
+     * <p>
+     * The response has an {@code ETag} header, and status {@code 304 (Not Modified)} if it matches the
+     * {@code If-None-Match} header of the request: the tag is then not loaded.
      *
      * @param id the id of the tag to retrieve.
+     * @param webRequest the current request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the tag, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Tag> getTag(@PathVariable("id") Long id) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<Tag> getTag(@PathVariable("id") Long id, WebRequest webRequest) {
         LOG.debug("REST request to get Tag : {}", id);
+        Optional<Long> currentVersion = tagRepository.findVersionById(id);
+        if (currentVersion.isPresent() && webRequest.checkNotModified(currentVersion.get().toString())) {
+            return null;
+        }
         Optional<Tag> tag = tagRepository.findById(id);
         return ResponseUtil.wrapOrNotFound(tag);
     }
@@ -195,23 +235,46 @@ public class TagResource {
     /**
      * {@code SEARCH  /tags/_search?query=:query} : search for the tag corresponding
      * to the query.
+     * <p>
+     * Pages hold at most {@code 100} tags, and cannot go past the {@code 10000}th result.
+     * <p>
+     * With {@code scroll=true}, or with the {@code after} cursor of a previous slice, the results are instead read
+     * one slice at a time, sorted by relevance, at a constant cost whatever the depth of the slice: no total count is
+     * computed, and the cursor of the next slice is sent in the {@code Link} header. A cursor is valid for
+     * {@code 5} minutes after its slice was read.
      *
      * @param query the query of the tag search.
+     * @param scroll whether to read the results one slice at a time.
+     * @param after the cursor returned with the previous slice.
      * @param pageable the pagination information.
      * @return the result of the search.
      */
     @GetMapping("/_search")
+    @Transactional(readOnly = true)
     public ResponseEntity<List<Tag>> searchTags(
         @RequestParam("query") String query,
+        @RequestParam(name = "scroll", required = false, defaultValue = "false") boolean scroll,
+        @RequestParam(name = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to search for a page of Tags for query {}", query);
         try {
-            Page<Tag> page = tagSearchRepository.search(query, pageable);
+            if (scroll || after != null) {
+                return scrollTags(query, after, pageable.getPageSize());
+            }
+            Page<Tag> page = tagSearchRepository.search(query, SearchPaginationUtil.boundedPageable(pageable, ENTITY_NAME));
             HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
             return ResponseEntity.ok().headers(headers).body(page.getContent());
         } catch (RuntimeException e) {
             throw ElasticsearchExceptionMapper.mapException(e);
         }
     }
+
+    private ResponseEntity<List<Tag>> scrollTags(String query, String after, int size) {
+        int limit = SearchPaginationUtil.boundedSize(size);
+        SearchCursor cursor = after != null ? SearchPaginationUtil.decodeSearchCursor(after, ENTITY_NAME) : SearchCursor.FIRST;
+        SearchSlice<Tag> slice = tagSearchRepository.searchAfter(query, cursor.pointInTimeId(), cursor.sortValues(), limit);
+        HttpHeaders headers = SearchPaginationUtil.generateSearchCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice, limit);
+        return ResponseEntity.ok().headers(headers).body(slice.content());
+    }
 }
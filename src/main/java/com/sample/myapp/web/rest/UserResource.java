@@ -2,6 +2,7 @@ package com.sample.myapp.web.rest;
 
 import com.sample.myapp.config.Constants;
 import com.sample.myapp.domain.User;
+import com.sample.myapp.repository.UserLookupFilter;
 import com.sample.myapp.repository.UserRepository;
 import com.sample.myapp.security.AuthoritiesConstants;
 import com.sample.myapp.service.MailService;
@@ -18,6 +19,7 @@ import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -86,10 +88,18 @@ public class UserResource {
 
     private final MailService mailService;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    private final UserLookupFilter userLookupFilter;
+
+    public UserResource(
+        UserService userService,
+        UserRepository userRepository,
+        MailService mailService,
+        UserLookupFilter userLookupFilter
+    ) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.mailService = mailService;
+        this.userLookupFilter = userLookupFilter;
     }
 
     /**
@@ -112,12 +122,30 @@ public class UserResource {
         if (userDTO.getId() != null) {
             throw new BadRequestAlertException("A new user cannot already have an ID", "userManagement", "idexists");
             // Lowercase the user login before comparing with database
-        } else if (userRepository.findOneByLogin(userDTO.getLogin().toLowerCase()).isPresent()) {
+        } else if (
+            userLookupFilter.mightContainLogin(userDTO.getLogin()) &&
+            userRepository.findOneByLogin(userDTO.getLogin().toLowerCase()).isPresent()
+        ) {
             throw new LoginAlreadyUsedException();
-        } else if (userRepository.findOneByEmailIgnoreCase(userDTO.getEmail()).isPresent()) {
+        } else if (
+            userLookupFilter.mightContainEmail(userDTO.getEmail()) && userRepository.findOneByEmailIgnoreCase(userDTO.getEmail()).isPresent()
+        ) {
             throw new EmailAlreadyUsedException();
         } else {
-            User newUser = userService.createUser(userDTO);
+            User newUser;
+            try {
+                newUser = userService.createUser(userDTO);
+            } catch (DataIntegrityViolationException e) {
+                // the user lookup filter missed a user written by another instance: check the database this time
+                userLookupFilter.add(userDTO.getLogin(), userDTO.getEmail());
+                if (userRepository.findOneByLogin(userDTO.getLogin().toLowerCase()).isPresent()) {
+                    throw new LoginAlreadyUsedException();
+                }
+                if (userRepository.findOneByEmailIgnoreCase(userDTO.getEmail()).isPresent()) {
+                    throw new EmailAlreadyUsedException();
+                }
+                throw e;
+            }
             mailService.sendCreationEmail(newUser);
             return ResponseEntity.created(new URI("/api/admin/users/" + newUser.getLogin()))
                 .headers(HeaderUtil.createAlert(applicationName, "userManagement.created", newUser.getLogin()))
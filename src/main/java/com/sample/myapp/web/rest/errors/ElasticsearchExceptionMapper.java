@@ -3,26 +3,42 @@ package com.sample.myapp.web.rest.errors;
 import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.ErrorCause;
 import java.util.List;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
 
 public class ElasticsearchExceptionMapper {
 
+    private static final String SEARCH_CONTEXT_MISSING = "search_context_missing_exception";
+
     private ElasticsearchExceptionMapper() {}
 
     public static RuntimeException mapException(RuntimeException originalException) {
         RuntimeException e = originalException;
+        // query string searches served by the local Lucene indices
+        if (e instanceof InvalidDataAccessApiUsageException && e.getCause() instanceof ParseException) {
+            return new QuerySyntaxException();
+        }
         if (e.getCause() instanceof UncategorizedElasticsearchException) {
             e = (UncategorizedElasticsearchException) e.getCause();
         }
         if (e.getCause() instanceof ElasticsearchException) {
             ElasticsearchException esException = (ElasticsearchException) e.getCause();
-            List<ErrorCause> rootCause = esException.response().error().rootCause();
+            ErrorCause error = esException.response().error();
+            List<ErrorCause> rootCause = error.rootCause();
             if (!rootCause.isEmpty()) {
                 String reason = rootCause.get(0).reason();
                 if (reason != null && reason.startsWith("Failed to parse query [")) {
                     return new QuerySyntaxException();
                 }
             }
+            // the point in time of a search cursor was closed, or was not used within its keep alive
+            if (
+                SEARCH_CONTEXT_MISSING.equals(error.type()) ||
+                (!rootCause.isEmpty() && SEARCH_CONTEXT_MISSING.equals(rootCause.get(0).type()))
+            ) {
+                return new SearchCursorExpiredException();
+            }
         }
 
         return originalException;
@@ -0,0 +1,11 @@
+package com.sample.myapp.web.rest.errors;
+
+@SuppressWarnings("java:S110") // Inheritance tree of classes should not be too deep
+public class SearchCursorExpiredException extends BadRequestAlertException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SearchCursorExpiredException() {
+        super("The search cursor has expired, the search must be started again", "elasticseach", "cursorexpired");
+    }
+}
@@ -0,0 +1,135 @@
+package com.sample.myapp.web.rest.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for handling HTTP {@code Range} requests on content whose length is not known up front.
+ * <p>
+ * Only single ranges with a first byte position are supported ({@code bytes=100-199} or {@code bytes=100-}):
+ * suffix ranges and multiple ranges would need the length of the content, so they are ignored and the whole content
+ * is sent, as allowed by RFC 9110.
+ */
+public final class ByteRangeUtil {
+
+    private static final Pattern SINGLE_RANGE = Pattern.compile("^bytes=(\\d{1,18})-(\\d{1,18})?$");
+
+    private ByteRangeUtil() {}
+
+    /**
+     * A range of bytes, bounds included.
+     *
+     * @param first the position of the first byte.
+     * @param last the position of the last byte, or {@link Long#MAX_VALUE} if the range goes to the end of the content.
+     */
+    public record ByteRange(long first, long last) {
+        public long length() {
+            return last == Long.MAX_VALUE ? Long.MAX_VALUE : last - first + 1;
+        }
+    }
+
+    /**
+     * Parse a {@code Range} header.
+     *
+     * @param header the value of the header, possibly {@code null}.
+     * @return the requested range, or {@code null} if the whole content should be sent.
+     */
+    public static ByteRange parseRange(String header) {
+        if (header == null) {
+            return null;
+        }
+        Matcher matcher = SINGLE_RANGE.matcher(header.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        long first = Long.parseLong(matcher.group(1));
+        long last = matcher.group(2) != null ? Long.parseLong(matcher.group(2)) : Long.MAX_VALUE;
+        return last >= first ? new ByteRange(first, last) : null;
+    }
+
+    /**
+     * Format the {@code Content-Range} header of a partial response.
+     *
+     * @param first the position of the first byte sent.
+     * @param last the position of the last byte sent.
+     * @param completeLength the length of the whole content, or {@code -1} if unknown.
+     * @return the value of the header.
+     */
+    public static String contentRange(long first, long last, long completeLength) {
+        return "bytes " + first + "-" + last + "/" + (completeLength < 0 ? "*" : String.valueOf(completeLength));
+    }
+
+    /**
+     * Format the {@code Content-Range} header of a {@code 416 (Range Not Satisfiable)} response.
+     *
+     * @param completeLength the length of the whole content.
+     * @return the value of the header.
+     */
+    public static String unsatisfiedContentRange(long completeLength) {
+        return "bytes */" + completeLength;
+    }
+
+    /**
+     * Output stream keeping only the bytes of a range, and counting all the bytes written to it.
+     */
+    public static final class RangeBuffer extends OutputStream {
+
+        private final long first;
+
+        private final long end;
+
+        private final ByteArrayOutputStream selected = new ByteArrayOutputStream();
+
+        private long position;
+
+        /**
+         * @param range the range of bytes to keep.
+         * @param maxLength the maximum number of bytes to keep, the range being truncated if longer.
+         */
+        public RangeBuffer(ByteRange range, int maxLength) {
+            this.first = range.first();
+            this.end = range.first() + Math.min(range.length(), maxLength);
+        }
+
+        @Override
+        public void write(int b) {
+            if (position >= first && position < end) {
+                selected.write(b);
+            }
+            position++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            long from = Math.max(position, first);
+            long to = Math.min(position + length, end);
+            if (from < to) {
+                selected.write(bytes, offset + (int) (from - position), (int) (to - from));
+            }
+            position += length;
+        }
+
+        /**
+         * @return {@code true} once all the bytes of the range have been written.
+         */
+        public boolean isFull() {
+            return position >= end;
+        }
+
+        /**
+         * @return the number of bytes written so far, which is the length of the content once it is all written.
+         */
+        public long getPosition() {
+            return position;
+        }
+
+        /**
+         * @return the bytes of the range written so far.
+         */
+        public byte[] toByteArray() {
+            return selected.toByteArray();
+        }
+    }
+}
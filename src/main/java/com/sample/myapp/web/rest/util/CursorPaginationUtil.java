@@ -0,0 +1,74 @@
+package com.sample.myapp.web.rest.util;
+
+import com.sample.myapp.web.rest.errors.BadRequestAlertException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling cursor (keyset) pagination.
+ * <p>
+ * Cursors are opaque to clients: they are the base64url encoding of the sort values of the last element of a slice,
+ * and are handed back to the client through a {@code Link} header with {@code rel="next"}.
+ */
+public final class CursorPaginationUtil {
+
+    public static final String AFTER_PARAMETER = "after";
+
+    private static final String SEPARATOR = "\n";
+
+    private CursorPaginationUtil() {}
+
+    /**
+     * Encode the given sort values into an opaque cursor.
+     *
+     * @param values the sort values of the last element of the slice.
+     * @return the cursor.
+     */
+    public static String encodeCursor(Object... values) {
+        String raw = Arrays.stream(values).map(String::valueOf).collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor previously created by {@link #encodeCursor(Object...)}.
+     *
+     * @param cursor the cursor sent by the client.
+     * @param expectedValues the number of sort values the cursor must hold.
+     * @param entityName the name of the paginated entity, used for error reporting.
+     * @return the sort values.
+     * @throws BadRequestAlertException if the cursor is malformed.
+     */
+    public static List<String> decodeCursor(String cursor, int expectedValues, String entityName) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            List<String> values = Arrays.asList(raw.split(SEPARATOR, -1));
+            if (values.size() == expectedValues) {
+                return values;
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through to the bad request below
+        }
+        throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+    }
+
+    /**
+     * Generate the pagination headers of a cursor paginated slice.
+     *
+     * @param uriBuilder the URI of the current request.
+     * @param nextCursor the cursor of the next slice, or {@code null} if this is the last slice.
+     * @return the {@link HttpHeaders}.
+     */
+    public static HttpHeaders generateCursorHttpHeaders(UriComponentsBuilder uriBuilder, String nextCursor) {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            String link = uriBuilder.replaceQueryParam(AFTER_PARAMETER, nextCursor).toUriString();
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,112 @@
+package com.sample.myapp.web.rest.util;
+
+import com.sample.myapp.repository.search.SearchSlice;
+import com.sample.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling the pagination of Elasticsearch searches.
+ * <p>
+ * Pages are bounded: they hold at most {@link #MAX_PAGE_SIZE} results, and cannot go past the
+ * {@code max_result_window} of the index. Deeper results are read with a cursor, whose slices are read with
+ * {@code search_after} from a point in time of the index; see {@link CursorPaginationUtil} for the encoding of cursors.
+ */
+public final class SearchPaginationUtil {
+
+    /**
+     * Maximum number of results of a page or of a slice.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Default {@code max_result_window} of an Elasticsearch index: the maximum offset of the last result of a page.
+     */
+    public static final int MAX_RESULT_WINDOW = 10000;
+
+    /**
+     * Position of a slice in a search, decoded from a cursor.
+     *
+     * @param pointInTimeId the point in time of the search.
+     * @param sortValues the sort values of the last result of the previous slice: its relevance score and its shard
+     * document.
+     */
+    public record SearchCursor(String pointInTimeId, List<String> sortValues) {
+        /**
+         * Position of the first slice, which opens a new point in time.
+         */
+        public static final SearchCursor FIRST = new SearchCursor(null, null);
+    }
+
+    private SearchPaginationUtil() {}
+
+    /**
+     * Bound the size of a requested page.
+     *
+     * @param pageable the requested page.
+     * @param entityName the name of the searched entity, used for error reporting.
+     * @return the requested page, with at most {@link #MAX_PAGE_SIZE} results.
+     * @throws BadRequestAlertException if the page goes past {@link #MAX_RESULT_WINDOW}.
+     */
+    public static Pageable boundedPageable(Pageable pageable, String entityName) {
+        Pageable bounded = pageable.getPageSize() > MAX_PAGE_SIZE
+            ? PageRequest.of(pageable.getPageNumber(), MAX_PAGE_SIZE, pageable.getSort())
+            : pageable;
+        if (bounded.getOffset() + bounded.getPageSize() > MAX_RESULT_WINDOW) {
+            throw new BadRequestAlertException("Page too deep, the search must be read with a cursor", entityName, "pagetoodeep");
+        }
+        return bounded;
+    }
+
+    /**
+     * Bound the size of a requested slice.
+     *
+     * @param size the requested size.
+     * @return the size, between {@code 1} and {@link #MAX_PAGE_SIZE}.
+     */
+    public static int boundedSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Decode the cursor of a search slice.
+     *
+     * @param cursor the cursor sent by the client.
+     * @param entityName the name of the searched entity, used for error reporting.
+     * @return the position of the slice.
+     * @throws BadRequestAlertException if the cursor is malformed.
+     */
+    public static SearchCursor decodeSearchCursor(String cursor, String entityName) {
+        List<String> values = CursorPaginationUtil.decodeCursor(cursor, 3, entityName);
+        try {
+            Double.parseDouble(values.get(1));
+            Long.parseLong(values.get(2));
+        } catch (NumberFormatException e) {
+            throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+        }
+        return new SearchCursor(values.get(0), values.subList(1, 3));
+    }
+
+    /**
+     * Generate the pagination headers of a search slice.
+     *
+     * @param uriBuilder the URI of the current request.
+     * @param slice the slice.
+     * @param size the size of the slice.
+     * @return the {@link HttpHeaders}, with the cursor of the next slice if there is one.
+     */
+    public static HttpHeaders generateSearchCursorHttpHeaders(UriComponentsBuilder uriBuilder, SearchSlice<?> slice, int size) {
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            List<Object> values = new ArrayList<>();
+            values.add(slice.pointInTimeId());
+            values.addAll(slice.nextSortValues());
+            nextCursor = CursorPaginationUtil.encodeCursor(values.toArray());
+        }
+        return CursorPaginationUtil.generateCursorHttpHeaders(uriBuilder.replaceQueryParam("size", size).replaceQueryParam("page"), nextCursor);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Rest layer utilities.
+ */
+package com.sample.myapp.web.rest.util;
@@ -0,0 +1,13 @@
+package com.sample.myapp.web.rest.vm;
+
+import com.sample.myapp.domain.Post;
+import com.sample.myapp.repository.search.PostFacets;
+import java.util.List;
+
+/**
+ * View Model object for a page of posts returned with the facets of the search.
+ *
+ * @param posts the posts of the page.
+ * @param facets the number of posts matching the search, by tag, mode and month.
+ */
+public record FacetedPostsVM(List<Post> posts, PostFacets facets) {}
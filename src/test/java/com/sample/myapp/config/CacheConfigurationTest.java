@@ -0,0 +1,65 @@
+package com.sample.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for the per-region settings of {@link CacheConfiguration}.
+ */
+class CacheConfigurationTest {
+
+    private final JHipsterProperties.Cache.Ehcache defaults = new JHipsterProperties.Cache.Ehcache();
+
+    CacheConfigurationTest() {
+        defaults.setMaxEntries(1000);
+        defaults.setTimeToLiveSeconds(3600);
+    }
+
+    @Test
+    void defaultsToTheJHipsterSettings() {
+        var configuration = CacheConfiguration.regionConfiguration(defaults, new ApplicationProperties.Cache.Region());
+
+        ResourcePools pools = configuration.getResourcePools();
+        assertThat(pools.getResourceTypeSet()).containsExactly(ResourceType.Core.HEAP);
+        assertThat(pools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(1000);
+        assertThat(pools.getPoolForResource(ResourceType.Core.HEAP).getUnit()).isEqualTo(EntryUnit.ENTRIES);
+        assertThat(configuration.getExpiryPolicy().getExpiryForCreation("key", "value")).isEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    void addsAnOffHeapTier() {
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        region.setMaxEntries(200L);
+        region.setOffHeapSize(DataSize.ofMegabytes(64));
+        region.setTimeToLive(Duration.ofMinutes(5));
+
+        var configuration = CacheConfiguration.regionConfiguration(defaults, region);
+
+        ResourcePools pools = configuration.getResourcePools();
+        assertThat(pools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(200);
+        SizedResourcePool offHeap = pools.getPoolForResource(ResourceType.Core.OFFHEAP);
+        assertThat(offHeap.getSize()).isEqualTo(64 * 1024);
+        assertThat(offHeap.getUnit()).isEqualTo(MemoryUnit.KB);
+        assertThat(configuration.getExpiryPolicy().getExpiryForCreation("key", "value")).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void expiresIdleEntries() {
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        region.setTimeToIdle(Duration.ofMinutes(10));
+
+        var configuration = CacheConfiguration.regionConfiguration(defaults, region);
+
+        assertThat(configuration.getExpiryPolicy().getExpiryForCreation("key", "value")).isEqualTo(Duration.ofMinutes(10));
+        assertThat(configuration.getExpiryPolicy().getExpiryForAccess("key", () -> "value")).isEqualTo(Duration.ofMinutes(10));
+    }
+}
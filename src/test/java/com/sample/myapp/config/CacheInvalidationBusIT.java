@@ -0,0 +1,117 @@
+package com.sample.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.sample.myapp.IntegrationTest;
+import com.sample.myapp.SampleApp;
+import com.sample.myapp.domain.Tag;
+import com.sample.myapp.domain.User;
+import com.sample.myapp.repository.TagRepository;
+import com.sample.myapp.repository.UserLookupFilter;
+import com.sample.myapp.repository.UserRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link CacheInvalidationBus}, with two instances of the application sharing the PostgreSQL
+ * database of the {@code testprod} profile: the one of the test, and another one started by the test.
+ */
+@IntegrationTest
+@EnabledIfSystemProperty(named = "spring.profiles.active", matches = ".*testprod.*")
+@TestPropertySource(
+    properties = { "spring.jpa.properties.hibernate.cache.use_second_level_cache=true", "application.cache.invalidation.enabled=true" }
+)
+class CacheInvalidationBusIT {
+
+    private static final Duration DELIVERY_TIMEOUT = Duration.ofSeconds(10);
+
+    private static ConfigurableApplicationContext otherInstance;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void startOtherInstance() {
+        if (otherInstance == null) {
+            otherInstance = new SpringApplicationBuilder(SampleApp.class, JacksonConfiguration.class, AsyncSyncConfiguration.class)
+                .properties(
+                    "spring.datasource.url=" + environment.getProperty("spring.datasource.url"),
+                    "spring.datasource.username=" + environment.getProperty("spring.datasource.username"),
+                    "spring.datasource.password=" + environment.getProperty("spring.datasource.password"),
+                    "spring.elasticsearch.uris=" + environment.getProperty("spring.elasticsearch.uris"),
+                    "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+                    "spring.liquibase.enabled=false",
+                    "application.cache.invalidation.enabled=true",
+                    "server.port=0"
+                )
+                .run();
+        }
+    }
+
+    @AfterAll
+    static void stopOtherInstance() {
+        if (otherInstance != null) {
+            otherInstance.close();
+            otherInstance = null;
+        }
+    }
+
+    @Test
+    void evictsTheEntitiesUpdatedByAnotherInstance() {
+        Tag tag = new TransactionTemplate(transactionManager).execute(status -> tagRepository.save(new Tag().name("before")));
+        TagRepository otherTagRepository = otherInstance.getBean(TagRepository.class);
+        TransactionTemplate otherTransactionTemplate = new TransactionTemplate(otherInstance.getBean(PlatformTransactionManager.class));
+        Cache otherSecondLevelCache = otherInstance.getBean(EntityManagerFactory.class).getCache();
+        otherTransactionTemplate.executeWithoutResult(status -> otherTagRepository.findById(tag.getId()));
+        assertThat(otherSecondLevelCache.contains(Tag.class, tag.getId())).isTrue();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            tagRepository.findById(tag.getId()).orElseThrow().setName("after")
+        );
+
+        await().atMost(DELIVERY_TIMEOUT).until(() -> !otherSecondLevelCache.contains(Tag.class, tag.getId()));
+        String otherName = otherTransactionTemplate.execute(status -> otherTagRepository.findById(tag.getId()).orElseThrow().getName());
+        assertThat(otherName).isEqualTo("after");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> tagRepository.deleteById(tag.getId()));
+    }
+
+    @Test
+    void learnsTheUsersCreatedByAnotherInstance() {
+        UserLookupFilter otherUserLookupFilter = otherInstance.getBean(UserLookupFilter.class);
+        await().atMost(DELIVERY_TIMEOUT).until(() -> !otherUserLookupFilter.mightContainLogin("cache-invalidation-it"));
+        User user = new User();
+        user.setLogin("cache-invalidation-it");
+        user.setEmail("cache-invalidation-it@localhost");
+        user.setPassword(RandomStringUtils.insecure().nextAlphanumeric(60));
+        user.setActivated(true);
+        user.setLangKey("en");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> userRepository.save(user));
+
+        await().atMost(DELIVERY_TIMEOUT).until(() -> otherUserLookupFilter.mightContainLogin("cache-invalidation-it"));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> userRepository.deleteById(user.getId()));
+    }
+}
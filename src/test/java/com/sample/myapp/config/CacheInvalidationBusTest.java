@@ -0,0 +1,302 @@
+package com.sample.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.sample.myapp.domain.User;
+import com.sample.myapp.repository.UserLookupFilter;
+import com.sample.myapp.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.sql.DataSource;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jdbc.Work;
+import org.hibernate.metamodel.spi.MappingMetamodelImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for the {@link CacheInvalidationBus} class: the notification payloads, and the evictions sent and
+ * received, with a mocked session factory and database.
+ */
+class CacheInvalidationBusTest {
+
+    private static final String NODE_ID = "3f1c2a9e-0000-4000-8000-000000000001";
+
+    private static final String POST = "com.sample.myapp.domain.Post";
+
+    private static final String POST_TAGS = POST + ".tags";
+
+    private static final String USER = "com.sample.myapp.domain.User";
+
+    private final SessionFactoryImplementor sessionFactory = mockHibernate(SessionFactoryImplementor.class);
+
+    private final CacheImplementor secondLevelCache = mockHibernate(CacheImplementor.class);
+
+    private final CacheManager cacheManager = mock(CacheManager.class);
+
+    private final Cache<Object, Object> usersByLogin = mockCache();
+
+    private final Cache<Object, Object> usersByEmail = mockCache();
+
+    private final UserLookupFilter userLookupFilter = mock(UserLookupFilter.class);
+
+    private final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+
+    private final DataSource dataSource = mock(DataSource.class);
+
+    private final Connection connection = mock(Connection.class);
+
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // the payloads notified on the database
+    private final List<String> notified = new ArrayList<>();
+
+    private CacheInvalidationBus bus;
+
+    private static <T> T mockHibernate(Class<T> type) {
+        // the type annotations of the Hibernate SPI are not on the test classpath
+        return mock(type, withSettings().withoutAnnotations());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<Object, Object> mockCache() {
+        return mock(Cache.class);
+    }
+
+    @BeforeEach
+    void setup() throws SQLException {
+        MappingMetamodelImplementor metamodel = mockHibernate(MappingMetamodelImplementor.class);
+        EntityPersister postPersister = entityPersister(POST, Object.class);
+        EntityPersister userPersister = entityPersister(USER, User.class);
+        when(metamodel.findEntityDescriptor(POST)).thenReturn(postPersister);
+        when(metamodel.getEntityDescriptor(POST)).thenReturn(postPersister);
+        when(metamodel.findEntityDescriptor(USER)).thenReturn(userPersister);
+        CollectionPersister tagsPersister = mockHibernate(CollectionPersister.class);
+        when(tagsPersister.getOwnerEntityPersister()).thenReturn(postPersister);
+        when(metamodel.findCollectionDescriptor(POST_TAGS)).thenReturn(tagsPersister);
+        when(sessionFactory.getMappingMetamodel()).thenReturn(metamodel);
+        when(sessionFactory.getCache()).thenReturn(secondLevelCache);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+
+        when(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).thenReturn(usersByLogin);
+        when(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).thenReturn(usersByEmail);
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        doAnswer(invocation -> notified.add(invocation.getArgument(1))).when(statement).setString(eq(2), anyString());
+
+        bus = new CacheInvalidationBus(
+            new ApplicationProperties(),
+            entityManagerFactory,
+            dataSource,
+            new DataSourceProperties(),
+            cacheManager,
+            userLookupFilter,
+            meterRegistry
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        List.copyOf(TransactionSynchronizationManager.getResourceMap().keySet()).forEach(TransactionSynchronizationManager::unbindResource);
+    }
+
+    /**
+     * Start a transaction, with the session of an entity manager bound to the thread, as the JPA transaction manager
+     * does.
+     *
+     * @return the session, with an action queue recording the processes registered on it.
+     */
+    private SessionImplementor beginTransaction() throws SQLException {
+        SessionImplementor session = mockHibernate(SessionImplementor.class);
+        ActionQueue actionQueue = mockHibernate(ActionQueue.class);
+        when(session.isTransactionInProgress()).thenReturn(true);
+        when(session.getActionQueue()).thenReturn(actionQueue);
+        doAnswer(invocation -> {
+            invocation.<Work>getArgument(0).execute(connection);
+            return null;
+        })
+            .when(session)
+            .doWork(any());
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        EntityManagerHolder entityManagerHolder = new EntityManagerHolder(entityManager);
+        entityManagerHolder.setSynchronizedWithTransaction(true);
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, entityManagerHolder);
+        return session;
+    }
+
+    private static EntityPersister entityPersister(String entityName, Class<?> mappedClass) {
+        EntityPersister persister = mockHibernate(EntityPersister.class);
+        Type idType = mockHibernate(Type.class);
+        doReturn(Long.class).when(idType).getReturnedClass();
+        when(persister.getIdentifierType()).thenReturn(idType);
+        when(persister.getEntityName()).thenReturn(entityName);
+        doReturn(mappedClass).when(persister).getMappedClass();
+        when(persister.canWriteToCache()).thenReturn(true);
+        return persister;
+    }
+
+    private double received() {
+        return meterRegistry.get(CacheInvalidationBus.RECEIVED_METER_NAME).counter().count();
+    }
+
+    @Test
+    void evictsTheEntitiesAndCollectionsChangedByAnotherInstance() {
+        bus.receive(NODE_ID + "\nE\t" + POST + "\t1\nC\t" + POST_TAGS + "\t2");
+
+        verify(secondLevelCache).evictEntityData(POST, 1L);
+        verify(secondLevelCache).evictCollectionData(POST_TAGS, 2L);
+        verifyNoInteractions(usersByLogin, usersByEmail, userLookupFilter);
+        assertThat(received()).isEqualTo(2);
+    }
+
+    @Test
+    void clearsTheUserCachesAndLearnsTheUsersWrittenByAnotherInstance() {
+        bus.receive(NODE_ID + "\nE\t" + USER + "\t3");
+
+        verify(secondLevelCache).evictEntityData(USER, 3L);
+        verify(usersByLogin).clear();
+        verify(usersByEmail).clear();
+        verify(userLookupFilter).add(3L);
+    }
+
+    @Test
+    void skipsUnknownEntitiesAndMalformedEvictions() {
+        bus.receive(NODE_ID + "\nE\tcom.sample.myapp.domain.Unknown\t1\nE\t" + POST);
+
+        verifyNoInteractions(secondLevelCache);
+    }
+
+    @Test
+    void sendsTheEntitiesEvictedOutsideOfTransactions() {
+        bus.evictEntity(POST, 1L);
+
+        verify(secondLevelCache).evictEntityData(POST, 1L);
+        assertThat(notified).singleElement().asString().endsWith("\nE\t" + POST + "\t1");
+    }
+
+    @Test
+    void sendsTheEntitiesEvictedInTransactionsOnTheirConnectionBeforeTheyCommit() throws SQLException {
+        SessionImplementor session = beginTransaction();
+        bus.evictEntity(POST, 1L);
+        bus.evictEntity(POST, 2L);
+        bus.evictEntity(POST, 1L);
+
+        assertThat(notified).isEmpty();
+
+        ArgumentCaptor<BeforeTransactionCompletionProcess> beforeCompletion = ArgumentCaptor.forClass(
+            BeforeTransactionCompletionProcess.class
+        );
+        ArgumentCaptor<AfterTransactionCompletionProcess> afterCompletion = ArgumentCaptor.forClass(
+            AfterTransactionCompletionProcess.class
+        );
+        verify(session.getActionQueue()).registerProcess(beforeCompletion.capture());
+        verify(session.getActionQueue()).registerProcess(afterCompletion.capture());
+        beforeCompletion.getValue().doBeforeTransactionCompletion(session);
+
+        assertThat(notified).singleElement().asString().endsWith("\nE\t" + POST + "\t1\nE\t" + POST + "\t2");
+        // sent in the transaction, which commits it
+        verify(dataSource, never()).getConnection();
+        verify(connection, never()).commit();
+
+        afterCompletion.getValue().doAfterTransactionCompletion(true, session);
+
+        assertThat(meterRegistry.get(CacheInvalidationBus.SENT_METER_NAME).counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void failsTheTransactionsThatCannotSendTheirEvictions() throws SQLException {
+        SessionImplementor session = beginTransaction();
+        when(statement.execute()).thenThrow(new SQLException("connection lost"));
+        bus.evictEntity(POST, 1L);
+
+        ArgumentCaptor<BeforeTransactionCompletionProcess> beforeCompletion = ArgumentCaptor.forClass(
+            BeforeTransactionCompletionProcess.class
+        );
+        verify(session.getActionQueue()).registerProcess(beforeCompletion.capture());
+
+        assertThatThrownBy(() -> beforeCompletion.getValue().doBeforeTransactionCompletion(session)).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void ignoresItsOwnEvictions() {
+        bus.evictEntity(POST, 1L);
+
+        bus.receive(notified.get(0));
+
+        // only evicted locally when sent
+        verify(secondLevelCache, times(1)).evictEntityData(POST, 1L);
+        assertThat(received()).isZero();
+    }
+
+    @Test
+    void sendsEvictionsInOnePayload() {
+        List<String> payloads = CacheInvalidationBus.payloads(
+            NODE_ID,
+            List.of("E\tcom.sample.myapp.domain.Post\t1", "C\tcom.sample.myapp.domain.Post.tags\t1")
+        );
+
+        assertThat(payloads).containsExactly(NODE_ID + "\nE\tcom.sample.myapp.domain.Post\t1\nC\tcom.sample.myapp.domain.Post.tags\t1");
+    }
+
+    @Test
+    void splitsLargePayloads() {
+        List<String> evictions = IntStream.range(0, 1000).mapToObj(id -> "E\tcom.sample.myapp.domain.Post\t" + id).toList();
+
+        List<String> payloads = CacheInvalidationBus.payloads(NODE_ID, evictions);
+
+        assertThat(payloads).hasSizeGreaterThan(1).allSatisfy(payload -> {
+            assertThat(payload).startsWith(NODE_ID + "\n");
+            assertThat(payload.length()).isLessThanOrEqualTo(CacheInvalidationBus.MAX_PAYLOAD_BYTES);
+        });
+        assertThat(payloads.stream().mapToLong(payload -> payload.lines().count() - 1).sum()).isEqualTo(1000);
+    }
+
+    @Test
+    void sendsNothingWithoutEvictions() {
+        assertThat(CacheInvalidationBus.payloads(NODE_ID, List.of())).isEmpty();
+    }
+
+    @Test
+    void parsesIdsOfTheIdentifierType() {
+        UUID uuid = UUID.randomUUID();
+
+        assertThat(CacheInvalidationBus.parseId(Long.class, "42")).isEqualTo(42L);
+        assertThat(CacheInvalidationBus.parseId(UUID.class, uuid.toString())).isEqualTo(uuid);
+        assertThat(CacheInvalidationBus.parseId(String.class, "ROLE_ADMIN")).isEqualTo("ROLE_ADMIN");
+    }
+}
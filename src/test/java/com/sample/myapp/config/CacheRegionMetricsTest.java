@@ -0,0 +1,77 @@
+package com.sample.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for the {@link CacheRegionMetrics} class, with regions created by {@link CacheConfiguration} and bound to
+ * Micrometer as Spring Boot does.
+ */
+class CacheRegionMetricsTest {
+
+    private static final String REGION = "com.sample.myapp.domain.Post";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CacheManager cacheManager;
+
+    private Cache<Object, Object> cache;
+
+    @BeforeEach
+    void setup() {
+        CachingProvider provider = Caching.getCachingProvider("org.ehcache.jsr107.EhcacheCachingProvider");
+        cacheManager = provider.getCacheManager();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        region.setMaxEntries(2L);
+        applicationProperties.getCache().getRegions().put(REGION, region);
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(new JHipsterProperties(), applicationProperties);
+        cacheConfiguration.cacheManagerCustomizer().customize(cacheManager);
+        meterRegistry.config().meterFilter(cacheConfiguration.cacheRegionMetrics());
+        cache = cacheManager.getCache(REGION);
+        new JCacheMetrics<>(cache, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.getCacheNames().forEach(cacheManager::destroyCache);
+    }
+
+    private double count(String name, String... tags) {
+        return meterRegistry.get(name).tag("cache", REGION).tag("entity", "Post").tags(tags).functionCounter().count();
+    }
+
+    @Test
+    void countsHitsMissesPutsAndEvictionsByEntity() {
+        cache.put(1L, "first");
+        cache.put(2L, "second");
+        cache.get(1L);
+        cache.get(3L);
+        cache.put(3L, "third");
+
+        assertThat(count("cache.gets", "result", "hit")).isEqualTo(1);
+        assertThat(count("cache.gets", "result", "miss")).isEqualTo(1);
+        assertThat(count("cache.puts")).isEqualTo(3);
+        assertThat(count("cache.evictions")).isEqualTo(1);
+    }
+
+    @Test
+    void leavesTheOtherMetersAlone() {
+        meterRegistry.counter(CacheInvalidationBus.SENT_METER_NAME).increment();
+        meterRegistry.counter("hibernate.cache.requests", "cache", REGION).increment();
+
+        assertThat(meterRegistry.get(CacheInvalidationBus.SENT_METER_NAME).counter().getId().getTag("entity")).isNull();
+        assertThat(meterRegistry.get("hibernate.cache.requests").counter().getId().getTag("entity")).isNull();
+    }
+}
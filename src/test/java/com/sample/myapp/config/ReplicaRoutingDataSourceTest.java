@@ -0,0 +1,150 @@
+package com.sample.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sample.myapp.repository.ReplicaReads;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for the {@link ReplicaRoutingDataSource} class, with H2 databases standing in for the primary database
+ * and its replicas.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private final Map<String, HikariDataSource> databases = new HashMap<>();
+
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties.ReadReplicas properties = new ApplicationProperties.ReadReplicas();
+        properties.setMaxLag(Duration.ofSeconds(5));
+        properties.setLagQuery("select lag from replica_lag");
+        dataSource = new ReplicaRoutingDataSource(
+            database("primary"),
+            List.of(database("replica1"), database("replica2"), unreachableDatabase()),
+            properties,
+            meterRegistry
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void sendsWritesToPrimary() throws SQLException {
+        dataSource.checkReplicas();
+
+        assertThat(databaseOf(false)).isEqualTo("primary");
+        assertThat(databaseOf(false)).isEqualTo("primary");
+    }
+
+    @Test
+    void spreadsReadsOverAvailableReplicas() throws SQLException {
+        dataSource.checkReplicas();
+
+        assertThat(List.of(databaseOf(true), databaseOf(true), databaseOf(true))).containsExactly("replica1", "replica2", "replica1");
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.CONNECTIONS_METER_NAME).tag("pool", "replica1").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.AVAILABLE_METER_NAME).tag("pool", "unreachable").gauge().value()).isZero();
+    }
+
+    @Test
+    void skipsLaggingReplicas() throws SQLException {
+        setLag("replica1", 10);
+        dataSource.checkReplicas();
+
+        assertThat(List.of(databaseOf(true), databaseOf(true))).containsExactly("replica2", "replica2");
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.LAG_METER_NAME).tag("pool", "replica1").gauge().value()).isEqualTo(10);
+
+        setLag("replica1", 1);
+        dataSource.checkReplicas();
+
+        assertThat(List.of(databaseOf(true), databaseOf(true))).contains("replica1");
+    }
+
+    @Test
+    void fallsBackToPrimary() throws SQLException {
+        setLag("replica1", 10);
+        setLag("replica2", 10);
+        dataSource.checkReplicas();
+
+        assertThat(databaseOf(true)).isEqualTo("primary");
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.CONNECTIONS_METER_NAME).tag("pool", "primary").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void marksTheTransactionsReadingFromReplicas() throws SQLException {
+        dataSource.checkReplicas();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            databaseOf(false);
+            assertThat(ReplicaReads.isCurrentTransactionReadingFromReplica()).isFalse();
+
+            databaseOf(true);
+            assertThat(ReplicaReads.isCurrentTransactionReadingFromReplica()).isTrue();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            assertThat(ReplicaReads.isCurrentTransactionReadingFromReplica()).isFalse();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private String databaseOf(boolean readOnly) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(readOnly);
+            try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("select name from origin")) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    private HikariDataSource database(String name) throws SQLException {
+        HikariDataSource database = new HikariDataSource();
+        database.setPoolName(name);
+        database.setJdbcUrl("jdbc:h2:mem:" + name + "_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = database.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table origin(name varchar(20))");
+            statement.execute("insert into origin values ('" + name + "')");
+            statement.execute("create table replica_lag(lag double precision)");
+            statement.execute("insert into replica_lag values (0)");
+        }
+        databases.put(name, database);
+        return database;
+    }
+
+    private static HikariDataSource unreachableDatabase() {
+        HikariDataSource database = new HikariDataSource();
+        database.setPoolName("unreachable");
+        database.setJdbcUrl("jdbc:h2:file:/nonexistent/directory/db;IFEXISTS=TRUE");
+        database.setConnectionTimeout(250);
+        return database;
+    }
+
+    private void setLag(String replica, double lag) throws SQLException {
+        try (Connection connection = databases.get(replica).getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("update replica_lag set lag = " + lag);
+        }
+    }
+}
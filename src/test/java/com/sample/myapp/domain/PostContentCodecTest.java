@@ -0,0 +1,101 @@
+package com.sample.myapp.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import org.junit.jupiter.api.Test;
+
+class PostContentCodecTest {
+
+    private static final String LONG_CONTENT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. Ça va ? ".repeat(100);
+
+    @Test
+    void compressesLongContent() {
+        String stored = PostContentCodec.encode(LONG_CONTENT, 1024);
+
+        assertThat(PostContentCodec.isCompressed(stored)).isTrue();
+        assertThat(stored.length()).isLessThan(LONG_CONTENT.length() / 4);
+        assertThat(PostContentCodec.decode(stored)).isEqualTo(LONG_CONTENT);
+    }
+
+    @Test
+    void keepsShortContentPlain() {
+        assertThat(PostContentCodec.encode("short", 1024)).isEqualTo("short");
+        assertThat(PostContentCodec.encode(null, 1024)).isNull();
+    }
+
+    @Test
+    void keepsIncompressibleContentPlain() {
+        String content = "AbCd3fGh1jKlMn0pQrStUvWxYz";
+
+        assertThat(PostContentCodec.encode(content, 0)).isEqualTo(content);
+    }
+
+    @Test
+    void readsPlainContent() {
+        assertThat(PostContentCodec.decode("plain")).isEqualTo("plain");
+        assertThat(PostContentCodec.decode(null)).isNull();
+        String lookalike = PostContentCodec.HEADER + "not base64!";
+        assertThat(PostContentCodec.decode(lookalike)).isEqualTo(lookalike);
+    }
+
+    @Test
+    void compressesContentThatLooksCompressed() {
+        String lookalike = PostContentCodec.HEADER + "short";
+
+        String stored = PostContentCodec.encode(lookalike, 1024);
+
+        assertThat(stored).isNotEqualTo(lookalike);
+        assertThat(PostContentCodec.decode(stored)).isEqualTo(lookalike);
+    }
+
+    @Test
+    void decodesPrefixOfCompressedContent() {
+        String stored = PostContentCodec.encode(LONG_CONTENT, 1024);
+
+        String prefix = PostContentCodec.decodePrefix(stored.substring(0, stored.length() / 2 + 1));
+
+        assertThat(LONG_CONTENT).startsWith(prefix);
+        assertThat(prefix).isNotEmpty();
+        assertThat(PostContentCodec.decodePrefix("plain")).isEqualTo("plain");
+    }
+
+    @Test
+    void encodingReaderMatchesEncode() throws IOException {
+        String stored = read(PostContentCodec.encodingReader(new StringReader(LONG_CONTENT), true, 1024));
+
+        assertThat(PostContentCodec.isCompressed(stored)).isTrue();
+        assertThat(PostContentCodec.decode(stored)).isEqualTo(LONG_CONTENT);
+        assertThat(read(PostContentCodec.decodingReader(new StringReader(stored)))).isEqualTo(LONG_CONTENT);
+    }
+
+    @Test
+    void encodingReaderKeepsContentPlain() throws IOException {
+        assertThat(read(PostContentCodec.encodingReader(new StringReader("short"), true, 1024))).isEqualTo("short");
+        assertThat(read(PostContentCodec.encodingReader(new StringReader(LONG_CONTENT), false, 1024))).isEqualTo(LONG_CONTENT);
+        assertThat(read(PostContentCodec.decodingReader(new StringReader("short")))).isEqualTo("short");
+        assertThat(read(PostContentCodec.decodingReader(new StringReader("")))).isEmpty();
+    }
+
+    @Test
+    void encodingReaderCompressesContentThatLooksCompressed() throws IOException {
+        String lookalike = PostContentCodec.HEADER + "short";
+
+        String stored = read(PostContentCodec.encodingReader(new StringReader(lookalike), false, 1024));
+
+        assertThat(stored).isNotEqualTo(lookalike);
+        assertThat(PostContentCodec.decode(stored)).isEqualTo(lookalike);
+    }
+
+    private static String read(Reader reader) throws IOException {
+        StringBuilder content = new StringBuilder();
+        char[] buffer = new char[100];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            content.append(buffer, 0, read);
+        }
+        return content.toString();
+    }
+}
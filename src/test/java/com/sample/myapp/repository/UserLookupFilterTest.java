@@ -0,0 +1,167 @@
+package com.sample.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.domain.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * Unit tests for the {@link UserLookupFilter} class.
+ */
+class UserLookupFilterTest {
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserLookupFilter filter;
+
+    @BeforeEach
+    void setup() {
+        applicationProperties.getUserLookupFilter().setEnabled(true);
+        List<UserRepository.LoginAndEmail> users = IntStream.range(0, 500)
+            .mapToObj(i -> loginAndEmail("user-" + i, "user-" + i + "@localhost"))
+            .toList();
+        when(userRepository.count()).thenReturn((long) users.size());
+        when(userRepository.streamAllBy()).thenAnswer(invocation -> users.stream());
+        createFilter();
+    }
+
+    private void createFilter() {
+        filter = new UserLookupFilter(
+            applicationProperties,
+            userRepository,
+            mock(EntityManagerFactory.class),
+            transactionManager,
+            meterRegistry
+        );
+    }
+
+    private static UserRepository.LoginAndEmail loginAndEmail(String login, String email) {
+        return new UserRepository.LoginAndEmail() {
+            @Override
+            public String getLogin() {
+                return login;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+
+    @Test
+    void mayContainAnythingUntilBuilt() {
+        assertThat(filter.mightContainLogin("unknown")).isTrue();
+        assertThat(filter.mightContainEmail("unknown@localhost")).isTrue();
+    }
+
+    @Test
+    void containsTheLoginsAndEmailsOfTheUsers() {
+        assertThat(filter.rebuild()).isEqualTo(500);
+
+        assertThat(IntStream.range(0, 500)).allSatisfy(i -> {
+            assertThat(filter.mightContainLogin("user-" + i)).isTrue();
+            assertThat(filter.mightContainEmail("User-" + i + "@LOCALHOST")).isTrue();
+        });
+        // a login is not taken for an email
+        assertThat(filter.mightContainEmail("user-1")).isFalse();
+    }
+
+    @Test
+    void tellsThatMostUnknownLoginsAreAbsent() {
+        filter.rebuild();
+
+        long falsePositives = IntStream.range(0, 10_000).filter(i -> filter.mightContainLogin("attacker-" + i)).count();
+
+        assertThat(falsePositives).isLessThan(200);
+        assertThat(meterRegistry.get(UserLookupFilter.LOOKUPS_METER_NAME).tag("result", "absent").counter().count()).isEqualTo(
+            10_000 - falsePositives
+        );
+    }
+
+    @Test
+    void keepsTheUsersWrittenWhileRebuilding() {
+        filter.rebuild();
+        // written before the next rebuild, but not read by it, as committed after
+        filter.add("new-user", "new-user@localhost");
+
+        filter.rebuild();
+
+        assertThat(filter.mightContainLogin("new-user")).isTrue();
+        assertThat(filter.mightContainEmail("new-user@localhost")).isTrue();
+    }
+
+    @Test
+    void readsTheUsersOfTheOtherInstancesFromThePrimaryDatabase() {
+        filter.rebuild();
+        User user = new User();
+        user.setLogin("other-user");
+        user.setEmail("other-user@localhost");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        filter.add(1L);
+
+        assertThat(filter.mightContainLogin("other-user")).isTrue();
+        assertThat(filter.mightContainEmail("other-user@localhost")).isTrue();
+        // a replica may not have the users committed last yet
+        ArgumentCaptor<TransactionDefinition> transactions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, atLeastOnce()).getTransaction(transactions.capture());
+        assertThat(transactions.getAllValues()).hasSize(2).noneMatch(TransactionDefinition::isReadOnly);
+    }
+
+    @Test
+    void mayContainAnythingWhenDisabled() {
+        filter.rebuild();
+        applicationProperties.getUserLookupFilter().setEnabled(false);
+
+        assertThat(filter.mightContainLogin("unknown")).isTrue();
+    }
+
+    @Test
+    void followsTheCacheInvalidationUnlessSet() {
+        applicationProperties.getUserLookupFilter().setEnabled(null);
+        filter.rebuild();
+
+        assertThat(filter.mightContainLogin("unknown")).isTrue();
+
+        applicationProperties.getCache().getInvalidation().setEnabled(true);
+        filter.resume();
+
+        assertThat(filter.mightContainLogin("unknown")).isFalse();
+    }
+
+    @Test
+    void waitsForTheCacheInvalidationToListen() {
+        applicationProperties.getCache().getInvalidation().setEnabled(true);
+        createFilter();
+        filter.rebuild();
+
+        assertThat(filter.mightContainLogin("unknown")).isTrue();
+
+        filter.resume();
+        assertThat(filter.mightContainLogin("unknown")).isFalse();
+
+        filter.suspend();
+        assertThat(filter.mightContainLogin("unknown")).isTrue();
+    }
+}
@@ -0,0 +1,90 @@
+package com.sample.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.sample.myapp.domain.User;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for the caches of the {@link UserRepository} users, with the repository mocked behind the caching proxy.
+ */
+class UserRepositoryCacheTest {
+
+    private AnnotationConfigApplicationContext context;
+
+    private UserRepository userRepository;
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setup() {
+        context = new AnnotationConfigApplicationContext(CachingConfiguration.class);
+        userRepository = context.getBean(UserRepository.class);
+        cacheManager = context.getBean(CacheManager.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        context.close();
+    }
+
+    @Test
+    void cachesTheUsersReadFromThePrimaryDatabase() {
+        userRepository.findOneWithAuthoritiesByLogin("user");
+        userRepository.findOneWithAuthoritiesByEmailIgnoreCase("user@localhost");
+
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("user")).isNotNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get("user@localhost")).isNotNull();
+    }
+
+    @Test
+    void doesNotCacheTheUsersReadFromAReplica() {
+        TransactionSynchronizationManager.initSynchronization();
+        ReplicaReads.markCurrentTransaction();
+
+        // a stale copy, from before the password change that cleared the caches
+        assertThat(userRepository.findOneWithAuthoritiesByLogin("user")).isPresent();
+        userRepository.findOneWithAuthoritiesByEmailIgnoreCase("user@localhost");
+
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("user")).isNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get("user@localhost")).isNull();
+    }
+
+    @Configuration
+    @EnableCaching
+    static class CachingConfiguration {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(UserRepository.USERS_BY_LOGIN_CACHE, UserRepository.USERS_BY_EMAIL_CACHE);
+        }
+
+        @Bean
+        UserRepository userRepository() {
+            UserRepository userRepository = mock(UserRepository.class);
+            User user = new User();
+            user.setLogin("user");
+            when(userRepository.findOneWithAuthoritiesByLogin("user")).thenReturn(Optional.of(user));
+            when(userRepository.findOneWithAuthoritiesByEmailIgnoreCase("user@localhost")).thenReturn(Optional.of(user));
+            return userRepository;
+        }
+    }
+}
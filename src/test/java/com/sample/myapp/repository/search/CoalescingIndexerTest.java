@@ -0,0 +1,234 @@
+package com.sample.myapp.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.domain.SearchIndexerPause;
+import com.sample.myapp.domain.SearchOutboxEvent;
+import com.sample.myapp.domain.Tag;
+import com.sample.myapp.repository.SearchIndexerPauseRepository;
+import com.sample.myapp.repository.SearchOutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for the {@link CoalescingIndexer} class, with an in-memory outbox.
+ */
+class CoalescingIndexerTest {
+
+    private ApplicationProperties applicationProperties;
+
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    private SearchOutboxEventRepository outboxRepository;
+
+    private SearchIndexerPauseRepository pauseRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    // the row shared by the instances
+    private SearchIndexerPause pause;
+
+    private final List<SearchOutboxEvent> outbox = new ArrayList<>();
+
+    // events locked by another instance
+    private final List<SearchOutboxEvent> lockedElsewhere = new ArrayList<>();
+
+    private final List<Collection<Long>> loads = new ArrayList<>();
+
+    private CoalescingIndexer indexer;
+
+    @BeforeEach
+    void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getSearchIndexer().setFlushInterval(Duration.ofHours(1));
+        applicationProperties.getSearchIndexer().setBatchSize(100);
+        elasticsearchTemplate = mock(ElasticsearchTemplate.class);
+        when(elasticsearchTemplate.getIndexCoordinatesFor(Tag.class)).thenReturn(IndexCoordinates.of("tag"));
+        when(elasticsearchTemplate.execute(any())).thenReturn(mock(BulkResponse.class));
+        outboxRepository = mock(SearchOutboxEventRepository.class);
+        when(outboxRepository.save(any())).thenAnswer(invocation -> {
+            SearchOutboxEvent event = invocation.getArgument(0);
+            outbox.add(event.id((long) outbox.size() + 1));
+            return event;
+        });
+        when(outboxRepository.findOldestForUpdate(any())).thenAnswer(invocation -> List.copyOf(outbox));
+        when(outboxRepository.findAllForUpdateByEntity(any(), any())).thenAnswer(invocation ->
+            eventsOf(outbox, invocation.getArgument(0), invocation.getArgument(1))
+        );
+        when(outboxRepository.findAllByEntityTypeAndEntityIdIn(any(), any())).thenAnswer(invocation -> {
+            List<SearchOutboxEvent> events = new ArrayList<>(eventsOf(outbox, invocation.getArgument(0), invocation.getArgument(1)));
+            events.addAll(eventsOf(lockedElsewhere, invocation.getArgument(0), invocation.getArgument(1)));
+            return events;
+        });
+        doAnswer(invocation -> outbox.removeAll(invocation.getArgument(0))).when(outboxRepository).deleteAllInBatch(any());
+        pause = new SearchIndexerPause().id(SearchIndexerPause.ID);
+        pauseRepository = mock(SearchIndexerPauseRepository.class);
+        when(pauseRepository.findForShareById(SearchIndexerPause.ID)).thenAnswer(invocation -> Optional.of(pause));
+        when(pauseRepository.save(any())).thenAnswer(invocation -> pause = invocation.getArgument(0));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private static List<SearchOutboxEvent> eventsOf(List<SearchOutboxEvent> events, String type, Collection<Long> ids) {
+        return events.stream().filter(event -> event.getEntityType().equals(type) && ids.contains(event.getEntityId())).toList();
+    }
+
+    @AfterEach
+    void tearDown() {
+        indexer.stop();
+    }
+
+    private void createIndexer() {
+        indexer = new CoalescingIndexer(
+            applicationProperties,
+            elasticsearchTemplate,
+            outboxRepository,
+            pauseRepository,
+            mock(PlatformTransactionManager.class),
+            meterRegistry,
+            new SearchResultCache(applicationProperties, meterRegistry, new ObjectMapper()),
+            Optional.empty()
+        );
+        indexer.register(Tag.class, this::loadTags, Tag::getId);
+    }
+
+    private List<Tag> loadTags(Collection<Long> ids) {
+        loads.add(List.copyOf(ids));
+        // tag 3 no longer exists
+        return ids.stream().filter(id -> id != 3).map(id -> new Tag().id(id)).toList();
+    }
+
+    @Test
+    void coalescesChangesToTheSameEntity() {
+        createIndexer();
+        indexer.synchronize(Tag.class, 1L);
+        indexer.synchronize(Tag.class, 1L);
+        indexer.synchronize(Tag.class, 3L);
+        assertThat(outbox).hasSize(3);
+        assertThat(loads).isEmpty();
+
+        indexer.flush();
+
+        assertThat(loads).singleElement().satisfies(ids -> assertThat(ids).containsExactlyInAnyOrder(1L, 3L));
+        verify(elasticsearchTemplate).save(List.of(new Tag().id(1L)));
+        verify(elasticsearchTemplate).execute(any());
+        assertThat(outbox).isEmpty();
+        assertThat(meterRegistry.get(CoalescingIndexer.DOCUMENTS_METER_NAME).tag("operation", "index").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(CoalescingIndexer.DOCUMENTS_METER_NAME).tag("operation", "delete").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsTheChangesUntilElasticsearchAcceptsThem() {
+        createIndexer();
+        indexer.synchronize(Tag.class, 1L);
+        when(elasticsearchTemplate.save(anyList())).thenThrow(new IllegalStateException("Elasticsearch is down"));
+
+        assertThatThrownBy(indexer::flush).isInstanceOf(IllegalStateException.class);
+        assertThat(outbox).hasSize(1);
+
+        reset(elasticsearchTemplate);
+        indexer.flush();
+
+        assertThat(outbox).isEmpty();
+        assertThat(loads).hasSize(2);
+    }
+
+    @Test
+    void indexesRightAwayWithoutFlushInterval() {
+        applicationProperties.getSearchIndexer().setFlushInterval(Duration.ZERO);
+        createIndexer();
+
+        indexer.synchronize(Tag.class, 1L);
+
+        assertThat(outbox).isEmpty();
+        assertThat(loads).hasSize(1);
+        verify(elasticsearchTemplate).save(List.of(new Tag().id(1L)));
+    }
+
+    @Test
+    void leavesTheEntitiesIndexedByAnotherInstance() {
+        createIndexer();
+        indexer.synchronize(Tag.class, 1L);
+        indexer.synchronize(Tag.class, 2L);
+        lockedElsewhere.add(new SearchOutboxEvent().id(100L).entityType("Tag").entityId(2L));
+
+        indexer.flush();
+
+        assertThat(loads).singleElement().satisfies(ids -> assertThat(ids).containsExactly(1L));
+        assertThat(outbox).singleElement().satisfies(event -> assertThat(event.getEntityId()).isEqualTo(2L));
+
+        lockedElsewhere.clear();
+        indexer.flush();
+
+        assertThat(loads).hasSize(2);
+        assertThat(outbox).isEmpty();
+    }
+
+    @Test
+    void keepsTheChangesWhileAnotherInstanceHasPausedTheOutbox() {
+        createIndexer();
+        indexer.synchronize(Tag.class, 1L);
+        pause.setPausedUntil(Instant.now().plus(Duration.ofMinutes(1)));
+
+        indexer.flush();
+
+        assertThat(loads).isEmpty();
+        assertThat(outbox).hasSize(1);
+        verify(elasticsearchTemplate, never()).save(anyList());
+
+        pause.setPausedUntil(null);
+        indexer.flush();
+
+        assertThat(loads).hasSize(1);
+        assertThat(outbox).isEmpty();
+    }
+
+    @Test
+    void appliesTheChangesOnceThePauseLeaseHasExpired() {
+        createIndexer();
+        indexer.synchronize(Tag.class, 1L);
+        pause.setPausedUntil(Instant.now().minusSeconds(1));
+
+        indexer.flush();
+
+        assertThat(loads).hasSize(1);
+        assertThat(outbox).isEmpty();
+    }
+
+    @Test
+    void pausesAndResumesTheOutboxOfEveryInstance() {
+        applicationProperties.getSearchIndexer().setPauseLease(Duration.ofMinutes(2));
+        createIndexer();
+
+        indexer.pause();
+
+        assertThat(pause.getPausedUntil()).isBetween(Instant.now().plusSeconds(110), Instant.now().plusSeconds(120));
+        Instant pausedUntil = pause.getPausedUntil();
+        indexer.renewPause();
+        assertThat(pause.getPausedUntil()).isEqualTo(pausedUntil);
+
+        applicationProperties.getSearchIndexer().setPauseLease(Duration.ofMinutes(10));
+        indexer.renewPause();
+        assertThat(pause.getPausedUntil()).isAfter(pausedUntil);
+
+        indexer.resume();
+
+        assertThat(pause.getPausedUntil()).isNull();
+    }
+}
@@ -0,0 +1,171 @@
+package com.sample.myapp.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.domain.Tag;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Unit tests for the {@link LuceneSearchIndex} class, with an in-memory database of tags.
+ */
+class LuceneSearchIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private final Map<Long, Tag> database = new ConcurrentHashMap<>();
+
+    private LuceneSearchIndex index;
+
+    @BeforeEach
+    void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getLocalSearch().setDirectory(directory.toString());
+        index = new LuceneSearchIndex(applicationProperties);
+        index.register(
+            Tag.class,
+            new LuceneSearchIndex.Mapping<>(
+                Tag::getId,
+                (tag, document) -> document.add(new TextField("name", tag.getName(), Field.Store.NO)),
+                List.of("name"),
+                Set.of()
+            )
+        );
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    private void save(Tag... tags) {
+        for (Tag tag : tags) {
+            database.put(tag.getId(), tag);
+        }
+        index.index(Tag.class, List.of(tags));
+    }
+
+    private List<Tag> load(Collection<Long> ids) {
+        return ids.stream().map(database::get).filter(tag -> tag != null).toList();
+    }
+
+    @Test
+    void searchesByRelevanceAndReadsTheEntities() {
+        save(new Tag().id(1L).name("java"), new Tag().id(2L).name("java spring"), new Tag().id(3L).name("kotlin"));
+
+        Page<Tag> page = index.search(Tag.class, "java", PageRequest.of(0, 10), this::load);
+
+        assertThat(page.getContent()).extracting(Tag::getId).containsExactly(1L, 2L);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(index.search(Tag.class, "id:3", PageRequest.of(0, 10), this::load).getContent()).extracting(Tag::getId).containsExactly(3L);
+    }
+
+    @Test
+    void pagesAndSortsById() {
+        save(new Tag().id(1L).name("java"), new Tag().id(2L).name("java"), new Tag().id(3L).name("java"));
+
+        Page<Tag> page = index.search(Tag.class, "java", PageRequest.of(1, 2, Sort.by(Sort.Order.desc("id"))), this::load);
+
+        assertThat(page.getContent()).extracting(Tag::getId).containsExactly(1L);
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void replacesAndDeletesDocuments() {
+        save(new Tag().id(1L).name("java"), new Tag().id(2L).name("kotlin"));
+        save(new Tag().id(1L).name("scala"));
+        index.delete(Tag.class, List.of(2L));
+
+        assertThat(index.search(Tag.class, "java kotlin", PageRequest.of(0, 10), this::load).getContent()).isEmpty();
+        assertThat(index.search(Tag.class, "scala", PageRequest.of(0, 10), this::load).getContent()).extracting(Tag::getId).containsExactly(1L);
+    }
+
+    @Test
+    void leavesOutTheEntitiesDeletedSinceTheyWereIndexed() {
+        save(new Tag().id(1L).name("java"), new Tag().id(2L).name("java"));
+        database.remove(2L);
+
+        assertThat(index.search(Tag.class, "java", PageRequest.of(0, 10), this::load).getContent()).extracting(Tag::getId).containsExactly(1L);
+    }
+
+    @Test
+    void rejectsInvalidQueries() {
+        assertThatThrownBy(() -> index.search(Tag.class, "name:(java", PageRequest.of(0, 10), this::load)).isInstanceOf(
+            InvalidDataAccessApiUsageException.class
+        );
+    }
+
+    @Test
+    void rejectsPagesPastTheResultWindow() {
+        assertThatThrownBy(() -> index.search(Tag.class, "java", PageRequest.of(100, 100), this::load)).isInstanceOf(
+            InvalidDataAccessApiUsageException.class
+        );
+        assertThat(index.search(Tag.class, "java", PageRequest.of(99, 100), this::load).getContent()).isEmpty();
+    }
+
+    @Test
+    void keepsSearchingTheCurrentIndexUntilRebuilt() {
+        save(new Tag().id(1L).name("java"), new Tag().id(2L).name("kotlin"));
+        Tag scala = new Tag().id(3L).name("scala");
+        database.put(3L, scala);
+
+        try (LuceneSearchIndex.Rebuild<Tag> rebuild = index.rebuild(Tag.class)) {
+            rebuild.index(List.of(scala));
+
+            assertThat(index.search(Tag.class, "java kotlin scala", PageRequest.of(0, 10), this::load).getContent())
+                .extracting(Tag::getId)
+                .containsExactlyInAnyOrder(1L, 2L);
+
+            rebuild.replace();
+        }
+
+        assertThat(index.search(Tag.class, "java kotlin scala", PageRequest.of(0, 10), this::load).getContent())
+            .extracting(Tag::getId)
+            .containsExactly(3L);
+        assertThat(directory.resolve("tag.rebuild")).doesNotExist();
+        // the rebuilt index is kept up to date as usual
+        save(new Tag().id(1L).name("java"));
+        assertThat(index.search(Tag.class, "java", PageRequest.of(0, 10), this::load).getContent()).extracting(Tag::getId).containsExactly(1L);
+    }
+
+    @Test
+    void leavesTheCurrentIndexWhenARebuildFails() {
+        save(new Tag().id(1L).name("java"));
+
+        try (LuceneSearchIndex.Rebuild<Tag> rebuild = index.rebuild(Tag.class)) {
+            rebuild.index(List.of(new Tag().id(2L).name("kotlin")));
+        }
+
+        assertThat(index.search(Tag.class, "java kotlin", PageRequest.of(0, 10), this::load).getContent())
+            .extracting(Tag::getId)
+            .containsExactly(1L);
+        assertThat(directory.resolve("tag.rebuild")).doesNotExist();
+    }
+
+    @Test
+    void refusesToStartWithSeveralInstances() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getLocalSearch().setDirectory(directory.toString());
+        applicationProperties.getCache().getInvalidation().setEnabled(true);
+
+        assertThatThrownBy(() -> new LuceneSearchIndex(applicationProperties)).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,158 @@
+package com.sample.myapp.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.domain.Post;
+import com.sample.myapp.domain.Tag;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Unit tests for the {@link SearchResultCache} class.
+ */
+class SearchResultCacheTest {
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger searches = new AtomicInteger();
+
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setup() {
+        applicationProperties.getSearchCache().setMaxSize(2);
+        applicationProperties.getSearchCache().setRefreshInterval(Duration.ZERO);
+        createCache();
+    }
+
+    private void createCache() {
+        cache = new SearchResultCache(applicationProperties, meterRegistry, JsonMapper.builder().findAndAddModules().build());
+    }
+
+    private Page<Tag> search(String query) {
+        return cache.get(Tag.class, query, PageRequest.of(0, 20), () -> {
+            searches.incrementAndGet();
+            return new PageImpl<>(List.of(new Tag().id(1L).name(query)));
+        });
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get(SearchResultCache.GETS_METER_NAME).tag("index", "Tag").tag("result", result).counter().count();
+    }
+
+    @Test
+    void servesTheSameQueryFromTheCache() {
+        search("java");
+
+        assertThat(search("  java ").getContent()).extracting(Tag::getName).containsExactly("java");
+        assertThat(search("Java").getContent()).extracting(Tag::getName).containsExactly("Java");
+        assertThat(searches).hasValue(2);
+        assertThat(gets("hit")).isEqualTo(1);
+        assertThat(gets("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void keysByPage() {
+        search("java");
+        cache.get(Tag.class, "java", PageRequest.of(1, 20), () -> {
+            searches.incrementAndGet();
+            return Page.empty();
+        });
+
+        assertThat(searches).hasValue(2);
+    }
+
+    @Test
+    void invalidatesTheResultsOfTheIndexWrittenTo() {
+        search("java");
+        cache.get(Post.class, "java", PageRequest.of(0, 20), Page::empty);
+
+        cache.invalidate(Tag.class);
+        search("java");
+        cache.get(Post.class, "java", PageRequest.of(0, 20), Page::empty);
+
+        assertThat(searches).hasValue(2);
+        assertThat(meterRegistry.get(SearchResultCache.GETS_METER_NAME).tag("index", "Post").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedResults() {
+        search("java");
+        search("kotlin");
+        search("java");
+        search("scala");
+
+        search("java");
+        search("kotlin");
+
+        assertThat(searches).hasValue(4);
+        assertThat(meterRegistry.get(SearchResultCache.SIZE_METER_NAME).gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotCacheResultsBeforeTheIndexIsRefreshed() {
+        applicationProperties.getSearchCache().setRefreshInterval(Duration.ofHours(1));
+        createCache();
+        search("java");
+        search("java");
+
+        cache.invalidate(Tag.class);
+        search("java");
+        search("java");
+
+        assertThat(searches).hasValue(3);
+    }
+
+    @Test
+    void expiresResults() {
+        applicationProperties.getSearchCache().setTimeToLive(Duration.ZERO);
+        createCache();
+        search("java");
+        search("java");
+
+        assertThat(searches).hasValue(2);
+    }
+
+    @Test
+    void givesEachHitItsOwnCopyOfTheEntities() {
+        search("java").getContent().get(0).setName("changed");
+
+        Page<Tag> first = search("java");
+        Page<Tag> second = search("java");
+
+        assertThat(first.getContent().get(0).getName()).isEqualTo("java");
+        assertThat(first.getContent().get(0)).isNotSameAs(second.getContent().get(0));
+        assertThat(first.getTotalElements()).isEqualTo(1);
+        assertThat(searches).hasValue(1);
+    }
+
+    @Test
+    void evictsResultsToStayUnderTheMaxWeight() {
+        applicationProperties.getSearchCache().setMaxSize(100);
+        applicationProperties.getSearchCache().setMaxWeight(DataSize.ofBytes(150));
+        createCache();
+        search("java".repeat(20));
+        search("kotlin".repeat(15));
+        search("scala".repeat(40));
+
+        search("kotlin".repeat(15));
+        search("java".repeat(20));
+        search("scala".repeat(40));
+
+        // only one of the first pages fits, and the last one is heavier than the cache
+        assertThat(searches).hasValue(5);
+        assertThat(gets("hit")).isEqualTo(1);
+    }
+}
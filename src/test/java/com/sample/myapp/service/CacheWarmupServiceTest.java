@@ -0,0 +1,108 @@
+package com.sample.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.domain.Authority;
+import com.sample.myapp.domain.Mode;
+import com.sample.myapp.domain.Post;
+import com.sample.myapp.domain.Tag;
+import com.sample.myapp.domain.User;
+import com.sample.myapp.repository.AuthorityRepository;
+import com.sample.myapp.repository.ModeRepository;
+import com.sample.myapp.repository.PostRepository;
+import com.sample.myapp.repository.TagRepository;
+import com.sample.myapp.repository.UserRepository;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for the {@link CacheWarmupService} class.
+ */
+class CacheWarmupServiceTest {
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    private final TagRepository tagRepository = mock(TagRepository.class);
+
+    private final ModeRepository modeRepository = mock(ModeRepository.class);
+
+    private final AuthorityRepository authorityRepository = mock(AuthorityRepository.class);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+
+    private CacheWarmupService service;
+
+    @BeforeEach
+    void setup() {
+        User user = new User();
+        user.setLogin("user");
+        when(tagRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(new Tag(), new Tag())));
+        when(modeRepository.findAllWithEagerRelationships(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(new Mode())));
+        when(authorityRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(new Authority(), new Authority())));
+        when(userRepository.findAllByIdNotNullAndActivatedIsTrue(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(user)));
+        when(postRepository.findAllWithEagerRelationships(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(new Post())));
+    }
+
+    private void createService() {
+        service = new CacheWarmupService(
+            applicationProperties,
+            tagRepository,
+            modeRepository,
+            authorityRepository,
+            userRepository,
+            postRepository,
+            mock(PlatformTransactionManager.class)
+        );
+    }
+
+    @Test
+    void loadsEachKindOfData() throws InterruptedException {
+        createService();
+
+        Map<String, Integer> loaded = service.warmUp();
+
+        assertThat(loaded).containsExactly(
+            Map.entry("tags", 2),
+            Map.entry("modes", 1),
+            Map.entry("authorities", 2),
+            Map.entry("users", 1),
+            Map.entry("posts", 1)
+        );
+        verify(userRepository).findOneWithAuthoritiesByLogin("user");
+    }
+
+    @Test
+    void givesUpWhatIsNotLoadedInTime() throws InterruptedException {
+        applicationProperties.getCache().getWarmup().setTimeout(Duration.ofMillis(200));
+        when(tagRepository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return new PageImpl<>(List.of());
+        });
+        createService();
+
+        Map<String, Integer> loaded = service.warmUp();
+
+        assertThat(loaded).containsEntry("tags", -1).containsEntry("modes", 1).containsEntry("posts", 1);
+    }
+
+    @Test
+    void reportsFailures() throws InterruptedException {
+        when(postRepository.findAllWithEagerRelationships(any(Pageable.class))).thenThrow(new IllegalStateException("database down"));
+        createService();
+
+        assertThat(service.warmUp()).containsEntry("posts", -1).containsEntry("tags", 2);
+    }
+}
@@ -0,0 +1,154 @@
+package com.sample.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sample.myapp.IntegrationTest;
+import com.sample.myapp.domain.Post;
+import com.sample.myapp.domain.Tag;
+import com.sample.myapp.repository.PostRepository;
+import com.sample.myapp.repository.TagRepository;
+import com.sample.myapp.repository.search.PostSearchRepository;
+import com.sample.myapp.service.dto.BulkItemResultDTO;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Integration tests for {@link PostBulkService}, with the posts of {@code PostResourceIT}.
+ */
+@IntegrationTest
+class PostBulkServiceIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PostBulkServiceIT.class);
+
+    private static final String DEFAULT_TITLE = "AAAAAAAAAA";
+
+    private static final String DEFAULT_CONTENT = "AAAAAAAAAA";
+
+    private static final Instant DEFAULT_DATE = Instant.ofEpochMilli(0L);
+
+    // the default idBlockSize of the Liquibase changelog
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final int BENCHMARK_ROUNDS = 5;
+
+    private static final int BENCHMARK_POSTS = 5000;
+
+    @Autowired
+    private PostBulkService postBulkService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostSearchRepository postSearchRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Tag> tags;
+
+    private final List<BulkItemResultDTO> results = new ArrayList<>();
+
+    @BeforeEach
+    void initTest() {
+        tags = tagRepository.saveAll(List.of(new Tag().name("first"), new Tag().name("second")));
+    }
+
+    @AfterEach
+    void cleanup() {
+        for (BulkItemResultDTO result : results) {
+            if (result.getId() != null) {
+                postRepository.deleteById(result.getId());
+                postSearchRepository.deleteFromIndexById(result.getId());
+            }
+        }
+        tagRepository.deleteAll(tags);
+    }
+
+    private List<BulkItemResultDTO> createPosts(int count) {
+        List<Post> posts = IntStream.range(0, count)
+            .mapToObj(index -> {
+                Post post = new Post().title(DEFAULT_TITLE).content(DEFAULT_CONTENT).date(DEFAULT_DATE);
+                tags.forEach(tag -> post.addTags(new Tag().id(tag.getId())));
+                return post;
+            })
+            .toList();
+        List<BulkItemResultDTO> created = postBulkService.createAll(posts.iterator());
+        results.addAll(created);
+        return created;
+    }
+
+    private long nextSequenceValue() {
+        String nextValue = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect()
+            .getSequenceSupport()
+            .getSequenceNextValString("sequence_generator");
+        return jdbcTemplate.queryForObject(nextValue, Long.class);
+    }
+
+    @Test
+    void createsThePostsWithTheirTags() {
+        List<BulkItemResultDTO> created = createPosts(3);
+
+        assertThat(created).extracting(BulkItemResultDTO::getStatus).containsExactly(201, 201, 201);
+        assertThat(created).extracting(BulkItemResultDTO::getId).doesNotHaveDuplicates();
+        Post post = postRepository.findOneWithEagerRelationships(created.get(0).getId()).orElseThrow();
+        assertThat(post.getTitle()).isEqualTo(DEFAULT_TITLE);
+        assertThat(post.getTags()).extracting(Tag::getName).containsExactlyInAnyOrder("first", "second");
+    }
+
+    @Test
+    void needsOneCallToTheSequencePerBlockOfIds() {
+        long before = nextSequenceValue();
+        long increment = nextSequenceValue() - before;
+
+        List<BulkItemResultDTO> created = createPosts(3 * ID_BLOCK_SIZE);
+
+        long calls = (nextSequenceValue() - before) / increment - 2;
+        assertThat(created).extracting(BulkItemResultDTO::getStatus).containsOnly(201);
+        assertThat(increment).isEqualTo(ID_BLOCK_SIZE);
+        // the current block may have been started before
+        assertThat(calls).isLessThanOrEqualTo(3);
+    }
+
+    /**
+     * Measures the posts created per second. Run it with {@code -Dbenchmark=true}, and, to compare with one call to the
+     * sequence per id, with {@code -Dspring.liquibase.parameters.idBlockSize=1} as well on a new database, as the
+     * increment of the sequence cannot be lowered.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @Timeout(value = 10, unit = TimeUnit.MINUTES)
+    void benchmark() {
+        for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+            long start = System.nanoTime();
+            List<BulkItemResultDTO> created = createPosts(BENCHMARK_POSTS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertThat(created).extracting(BulkItemResultDTO::getStatus).containsOnly(201);
+            LOG.info("Round {}: {} posts/s", round, Math.round(BENCHMARK_POSTS / seconds));
+        }
+    }
+}
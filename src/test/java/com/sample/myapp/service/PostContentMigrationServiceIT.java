@@ -0,0 +1,57 @@
+package com.sample.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sample.myapp.IntegrationTest;
+import com.sample.myapp.domain.Post;
+import com.sample.myapp.domain.PostContentCodec;
+import com.sample.myapp.repository.PostRepository;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link PostContentMigrationService}.
+ */
+@IntegrationTest
+@Transactional
+class PostContentMigrationServiceIT {
+
+    private static final String LONG_CONTENT = "All work and no play makes Jack a dull boy. ".repeat(100);
+
+    @Autowired
+    private PostContentMigrationService postContentMigrationService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void assertThatPlainContentIsCompressed() {
+        Post longPost = postRepository.saveAndFlush(new Post().title("long").content(LONG_CONTENT).date(Instant.now()));
+        Post shortPost = postRepository.saveAndFlush(new Post().title("short").content("short").date(Instant.now()));
+        assertThat(storedContent(longPost)).isEqualTo(LONG_CONTENT);
+
+        int compressed = postContentMigrationService.compressAll();
+
+        assertThat(compressed).isGreaterThanOrEqualTo(1);
+        assertThat(PostContentCodec.isCompressed(storedContent(longPost))).isTrue();
+        assertThat(storedContent(shortPost)).isEqualTo("short");
+        em.clear();
+        assertThat(postRepository.findById(longPost.getId())).get().extracting(Post::getContent).isEqualTo(LONG_CONTENT);
+
+        assertThat(postContentMigrationService.compressAll()).isZero();
+    }
+
+    private String storedContent(Post post) {
+        return jdbcTemplate.queryForObject("select content from post where id = ?", String.class, post.getId());
+    }
+}
@@ -0,0 +1,183 @@
+package com.sample.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sample.myapp.config.ApplicationProperties;
+import com.sample.myapp.domain.SearchIndexerPause;
+import com.sample.myapp.domain.SearchOutboxEvent;
+import com.sample.myapp.domain.Tag;
+import com.sample.myapp.repository.SearchIndexerPauseRepository;
+import com.sample.myapp.repository.SearchOutboxEventRepository;
+import com.sample.myapp.repository.search.CoalescingIndexer;
+import com.sample.myapp.repository.search.SearchResultCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for the {@link SearchReindexService} class, with two instances of the application sharing an in-memory
+ * outbox.
+ */
+class SearchReindexServiceTest {
+
+    private final List<SearchOutboxEvent> outbox = new ArrayList<>();
+
+    // the row shared by the instances
+    private SearchIndexerPause pause = new SearchIndexerPause().id(SearchIndexerPause.ID);
+
+    private final List<List<?>> indexed = new ArrayList<>();
+
+    @Test
+    void appliesTheChangesMadeOnAnotherInstanceDuringAReindexToTheNewIndex() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSearchIndexer().setFlushInterval(Duration.ofHours(1));
+        ElasticsearchTemplate elasticsearchTemplate = mockElasticsearchTemplate();
+        SearchOutboxEventRepository outboxRepository = mockOutboxRepository();
+        SearchIndexerPauseRepository pauseRepository = mock(SearchIndexerPauseRepository.class);
+        when(pauseRepository.findForShareById(SearchIndexerPause.ID)).thenAnswer(invocation -> Optional.of(pause));
+        when(pauseRepository.save(any())).thenAnswer(invocation -> pause = invocation.getArgument(0));
+        CoalescingIndexer indexer = createIndexer(applicationProperties, elasticsearchTemplate, outboxRepository, pauseRepository);
+        CoalescingIndexer otherIndexer = createIndexer(applicationProperties, elasticsearchTemplate, outboxRepository, pauseRepository);
+        IndexOperations newIndexOps = mock(IndexOperations.class);
+        when(elasticsearchTemplate.indexOps(any(IndexCoordinates.class))).thenReturn(newIndexOps);
+        // a tag is changed on the other instance while the new index is loaded
+        doAnswer(invocation -> {
+            otherIndexer.synchronize(Tag.class, 1L);
+            otherIndexer.flush();
+            return true;
+        })
+            .when(newIndexOps)
+            .create(any(), any());
+        SearchReindexService service = new SearchReindexService(
+            applicationProperties,
+            indexer,
+            elasticsearchTemplate,
+            mockEntityManager(),
+            mock(PlatformTransactionManager.class),
+            new SearchResultCache(applicationProperties, new SimpleMeterRegistry(), new ObjectMapper()),
+            Optional.empty()
+        );
+
+        try {
+            service.start(List.of());
+            await().atMost(Duration.ofSeconds(10)).until(() -> !service.getStatus().running());
+
+            assertThat(service.getStatus().indices()).singleElement().satisfies(index ->
+                assertThat(index.state()).isEqualTo(SearchReindexService.State.DONE)
+            );
+            assertThat(indexed).isEmpty();
+            assertThat(outbox).hasSize(1);
+            assertThat(pause.getPausedUntil()).isNull();
+
+            otherIndexer.flush();
+
+            assertThat(indexed).containsExactly(List.of(new Tag().id(1L)));
+            assertThat(outbox).isEmpty();
+        } finally {
+            service.stop();
+        }
+    }
+
+    private ElasticsearchTemplate mockElasticsearchTemplate() {
+        ElasticsearchTemplate elasticsearchTemplate = mock(ElasticsearchTemplate.class);
+        when(elasticsearchTemplate.getIndexCoordinatesFor(Tag.class)).thenReturn(IndexCoordinates.of("tag"));
+        IndexOperations entityIndexOps = mock(IndexOperations.class);
+        when(entityIndexOps.createSettings(Tag.class)).thenReturn(new Settings());
+        when(elasticsearchTemplate.indexOps(Tag.class)).thenReturn(entityIndexOps);
+        when(elasticsearchTemplate.save(anyList())).thenAnswer(invocation -> {
+            indexed.add(List.copyOf(invocation.<List<?>>getArgument(0)));
+            return invocation.getArgument(0);
+        });
+        return elasticsearchTemplate;
+    }
+
+    private SearchOutboxEventRepository mockOutboxRepository() {
+        SearchOutboxEventRepository outboxRepository = mock(SearchOutboxEventRepository.class);
+        when(outboxRepository.save(any())).thenAnswer(invocation -> {
+            SearchOutboxEvent event = invocation.getArgument(0);
+            outbox.add(event.id((long) outbox.size() + 1));
+            return event;
+        });
+        when(outboxRepository.findOldestForUpdate(any())).thenAnswer(invocation -> List.copyOf(outbox));
+        when(outboxRepository.findAllForUpdateByEntity(any(), any())).thenAnswer(invocation -> List.copyOf(outbox));
+        when(outboxRepository.findAllByEntityTypeAndEntityIdIn(any(), any())).thenAnswer(invocation -> List.copyOf(outbox));
+        doAnswer(invocation -> outbox.removeAll(invocation.getArgument(0))).when(outboxRepository).deleteAllInBatch(any());
+        return outboxRepository;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EntityManager mockEntityManager() {
+        // no tag in the database yet: the new index is created empty
+        TypedQuery<Object[]> bounds = mock(TypedQuery.class);
+        when(bounds.getSingleResult()).thenReturn(new Object[] { null, null, 0L });
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.createQuery(anyString(), eq(Object[].class))).thenReturn(bounds);
+        return entityManager;
+    }
+
+    private static CoalescingIndexer createIndexer(
+        ApplicationProperties applicationProperties,
+        ElasticsearchTemplate elasticsearchTemplate,
+        SearchOutboxEventRepository outboxRepository,
+        SearchIndexerPauseRepository pauseRepository
+    ) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CoalescingIndexer indexer = new CoalescingIndexer(
+            applicationProperties,
+            elasticsearchTemplate,
+            outboxRepository,
+            pauseRepository,
+            mock(PlatformTransactionManager.class),
+            meterRegistry,
+            new SearchResultCache(applicationProperties, meterRegistry, new ObjectMapper()),
+            Optional.empty()
+        );
+        indexer.register(Tag.class, SearchReindexServiceTest::loadTags, Tag::getId);
+        return indexer;
+    }
+
+    private static List<Tag> loadTags(Collection<Long> ids) {
+        return ids.stream().map(id -> new Tag().id(id)).toList();
+    }
+
+    @Test
+    void partitionsIdsInRangesOfTheSameSize() {
+        assertThat(SearchReindexService.partition(1, 10, 4)).containsExactly(
+            new long[] { 1, 3 },
+            new long[] { 4, 6 },
+            new long[] { 7, 9 },
+            new long[] { 10, 10 }
+        );
+    }
+
+    @Test
+    void partitionsFewIdsInFewerRanges() {
+        assertThat(SearchReindexService.partition(5, 6, 4)).containsExactly(new long[] { 5, 5 }, new long[] { 6, 6 });
+        assertThat(SearchReindexService.partition(7, 7, 4)).containsExactly(new long[] { 7, 7 });
+    }
+
+    @Test
+    void partitionsLargeIds() {
+        assertThat(SearchReindexService.partition(Long.MAX_VALUE - 9, Long.MAX_VALUE, 2)).containsExactly(
+            new long[] { Long.MAX_VALUE - 9, Long.MAX_VALUE - 5 },
+            new long[] { Long.MAX_VALUE - 4, Long.MAX_VALUE }
+        );
+    }
+}
@@ -33,6 +33,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.util.Streamable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -258,6 +259,51 @@ class ModeResourceIT {
             .andExpect(jsonPath("$.handle").value(DEFAULT_HANDLE));
     }
 
+    @Test
+    @Transactional
+    void getModeNotModified() throws Exception {
+        // Initialize the database
+        insertedMode = modeRepository.saveAndFlush(mode);
+
+        // Get the mode with its current ETag
+        restModeMockMvc
+            .perform(get(ENTITY_API_URL_ID, mode.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"" + mode.getVersion() + "\""))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    void patchModeWithIfMatch() throws Exception {
+        // Initialize the database
+        insertedMode = modeRepository.saveAndFlush(mode);
+        long version = mode.getVersion();
+        String eTag = "\"" + version + "\"";
+
+        Mode partialUpdatedMode = new Mode();
+        partialUpdatedMode.setId(mode.getId());
+        partialUpdatedMode.name(UPDATED_NAME);
+
+        restModeMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedMode.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(partialUpdatedMode))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + (version + 1) + "\""));
+
+        // The ETag is now stale
+        restModeMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedMode.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(partialUpdatedMode))
+            )
+            .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @Transactional
     void getNonExistingMode() throws Exception {
@@ -515,6 +561,27 @@ class ModeResourceIT {
             .andExpect(jsonPath("$.[*].handle").value(hasItem(DEFAULT_HANDLE)));
     }
 
+    @Test
+    @Transactional
+    void scrollSearchMode() throws Exception {
+        // Initialize the database
+        insertedMode = modeRepository.saveAndFlush(mode);
+        modeSearchRepository.save(mode);
+
+        // Search the mode, one slice at a time
+        restModeMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?scroll=true&size=1&query=id:" + mode.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(mode.getId().intValue())))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    void searchModeBeyondTheSearchWindow() throws Exception {
+        restModeMockMvc.perform(get(ENTITY_SEARCH_API_URL + "?query=*&page=100&size=100")).andExpect(status().isBadRequest());
+    }
+
     protected long getRepositoryCount() {
         return modeRepository.count();
     }
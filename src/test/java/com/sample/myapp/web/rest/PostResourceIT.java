@@ -4,6 +4,9 @@ import static com.sample.myapp.domain.PostAsserts.*;
 import static com.sample.myapp.web.rest.TestUtil.createUpdateProxyForBean;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -11,10 +14,17 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sample.myapp.IntegrationTest;
+import com.sample.myapp.domain.Mode;
 import com.sample.myapp.domain.Post;
+import com.sample.myapp.domain.PostSummary;
+import com.sample.myapp.domain.Tag;
+import com.sample.myapp.repository.ModeRepository;
 import com.sample.myapp.repository.PostRepository;
 import com.sample.myapp.repository.search.PostSearchRepository;
+import com.sample.myapp.service.dto.BulkItemResultDTO;
 import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
@@ -22,6 +32,7 @@ import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 import org.assertj.core.util.IterableUtil;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,9 +45,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.util.Streamable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -60,6 +73,12 @@ class PostResourceIT {
     private static final String ENTITY_API_URL = "/api/posts";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/posts/_search";
+    private static final String ENTITY_FIND_API_URL = "/api/posts/_find";
+    private static final String ENTITY_BULK_API_URL = "/api/posts/_bulk";
+    private static final String ENTITY_EXPORT_API_URL = "/api/posts/_export";
+    private static final String ENTITY_SCROLL_API_URL = "/api/posts/_scroll";
+    private static final String ENTITY_SUMMARY_API_URL = "/api/posts/_summary";
+    private static final String ENTITY_CONTENT_API_URL = ENTITY_API_URL_ID + "/content";
 
     private static Random random = new Random();
     private static AtomicLong longCount = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -76,6 +95,9 @@ class PostResourceIT {
     @Autowired
     private PostSearchRepository postSearchRepository;
 
+    @Autowired
+    private ModeRepository modeRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -150,6 +172,114 @@ class PostResourceIT {
         insertedPost = returnedPost;
     }
 
+    @Test
+    @Transactional
+    void createPostWithModeAndTagReferences() throws Exception {
+        Mode mode = ModeResourceIT.createEntity();
+        em.persist(mode);
+        Tag tag = TagResourceIT.createEntity();
+        em.persist(tag);
+        em.flush();
+        long databaseSizeBeforeCreate = getRepositoryCount();
+
+        // The mode and the tag are only referenced by their id, without their version
+        post.mode(new Mode().id(mode.getId())).addTags(new Tag().id(tag.getId()));
+        var returnedPost = om.readValue(
+            restPostMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(post)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            Post.class
+        );
+
+        assertIncrementedRepositoryCount(databaseSizeBeforeCreate);
+        // the response carries the mode and the tag, not only their ids
+        assertThat(returnedPost.getMode().getName()).isEqualTo(mode.getName());
+        assertThat(returnedPost.getTags()).extracting(Tag::getName).containsExactly(tag.getName());
+        em.clear();
+        Post persistedPost = postRepository.findOneWithEagerRelationships(returnedPost.getId()).orElseThrow();
+        assertThat(persistedPost.getMode().getId()).isEqualTo(mode.getId());
+        assertThat(persistedPost.getTags()).extracting(Tag::getId).containsExactly(tag.getId());
+        insertedPost = persistedPost;
+    }
+
+    @Test
+    void createPostsInBulk() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        int searchDatabaseSizeBefore = IterableUtil.sizeOf(postSearchRepository.findAll());
+        List<Post> posts = List.of(
+            post,
+            createEntity().title(null),
+            createUpdatedEntity().addTags(new Tag().id(Long.MAX_VALUE)),
+            createUpdatedEntity()
+        );
+
+        // The missing tag makes the chunk fail, so its posts are saved one by one
+        BulkItemResultDTO[] results = om.readValue(
+            restPostMockMvc
+                .perform(post(ENTITY_BULK_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(posts)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            BulkItemResultDTO[].class
+        );
+
+        try {
+            assertThat(results).extracting(BulkItemResultDTO::getIndex).containsExactly(0, 1, 2, 3);
+            assertThat(results).extracting(BulkItemResultDTO::getStatus).containsExactly(201, 400, 400, 201);
+            assertThat(results[1].getError()).contains("title");
+            assertThat(results[0].getId()).isNotNull();
+            assertThat(results[3].getId()).isNotNull();
+            assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeCreate + 2);
+            assertThat(postRepository.findById(results[3].getId())).get().extracting(Post::getTitle).isEqualTo(UPDATED_TITLE);
+            await()
+                .atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> {
+                    int searchDatabaseSizeAfter = IterableUtil.sizeOf(postSearchRepository.findAll());
+                    assertThat(searchDatabaseSizeAfter).isEqualTo(searchDatabaseSizeBefore + 2);
+                });
+        } finally {
+            deleteCreatedPosts(results);
+        }
+    }
+
+    @Test
+    void createPostsInBulkFromNdjson() throws Exception {
+        long databaseSizeBeforeCreate = getRepositoryCount();
+        String body = om.writeValueAsString(post) + "\n" + om.writeValueAsString(createUpdatedEntity()) + "\n{\"title\": \n";
+
+        BulkItemResultDTO[] results = om.readValue(
+            restPostMockMvc
+                .perform(post(ENTITY_BULK_API_URL).contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            BulkItemResultDTO[].class
+        );
+
+        try {
+            // The posts read before the malformed one are created
+            assertThat(results).extracting(BulkItemResultDTO::getStatus).containsExactly(201, 201, 400);
+            assertThat(results[2].getError()).startsWith("Malformed post");
+            assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeCreate + 2);
+        } finally {
+            deleteCreatedPosts(results);
+        }
+    }
+
+    private void deleteCreatedPosts(BulkItemResultDTO[] results) {
+        for (BulkItemResultDTO result : results) {
+            if (result.getId() != null) {
+                postRepository.deleteById(result.getId());
+                postSearchRepository.deleteFromIndexById(result.getId());
+            }
+        }
+    }
+
     @Test
     @Transactional
     void createPostWithExistingId() throws Exception {
@@ -227,6 +357,137 @@ class PostResourceIT {
             .andExpect(jsonPath("$.[*].date").value(hasItem(DEFAULT_DATE.toString())));
     }
 
+    @Test
+    @Transactional
+    void getAllPostsWithTags() throws Exception {
+        // Initialize the database
+        Tag tag = TagResourceIT.createEntity();
+        em.persist(tag);
+        Post otherPost = postRepository.saveAndFlush(createEntity().addTags(tag));
+        insertedPost = postRepository.saveAndFlush(post.addTags(tag));
+        em.clear();
+
+        // Get all the postList, the tags being loaded for the whole page at once
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&eagerload=true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(post.getId().intValue()))
+            .andExpect(jsonPath("$.[0].tags.[*].name").value(hasItem(tag.getName())))
+            .andExpect(jsonPath("$.[1].id").value(otherPost.getId().intValue()))
+            .andExpect(jsonPath("$.[1].tags.[*].name").value(hasItem(tag.getName())));
+    }
+
+    @Test
+    void exportPosts() throws Exception {
+        // Initialize the database, outside of the test transaction as each slice is read in its own transaction
+        Mode mode = modeRepository.saveAndFlush(ModeResourceIT.createEntity());
+        Post oldPost = postRepository.saveAndFlush(createEntity().date(Instant.parse("2020-01-01T00:00:00Z")).mode(mode));
+        Post newPost = postRepository.saveAndFlush(createUpdatedEntity().date(Instant.parse("2021-01-01T00:00:00Z")).mode(mode));
+        Post otherPost = postRepository.saveAndFlush(createEntity().date(Instant.parse("2021-01-01T00:00:00Z")));
+
+        try {
+            String export = restPostMockMvc
+                .perform(get(ENTITY_EXPORT_API_URL + "?modeId=" + mode.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+            List<String> lines = export.lines().toList();
+            assertThat(lines).hasSize(2);
+            assertThat(om.readValue(lines.get(0), Post.class).getId()).isEqualTo(newPost.getId());
+            assertThat(om.readValue(lines.get(0), Post.class).getContent()).isEqualTo(UPDATED_CONTENT);
+            assertThat(om.readValue(lines.get(1), Post.class).getId()).isEqualTo(oldPost.getId());
+
+            byte[] gzippedExport = restPostMockMvc
+                .perform(
+                    get(ENTITY_EXPORT_API_URL + "?modeId=" + mode.getId() + "&from=2020-06-01T00:00:00Z").header(
+                        HttpHeaders.ACCEPT_ENCODING,
+                        "gzip"
+                    )
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(gzippedExport))) {
+                lines = new String(gzip.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+            }
+            assertThat(lines).hasSize(1);
+            assertThat(om.readValue(lines.get(0), Post.class).getId()).isEqualTo(newPost.getId());
+        } finally {
+            postRepository.deleteAllById(List.of(oldPost.getId(), newPost.getId(), otherPost.getId()));
+            modeRepository.deleteById(mode.getId());
+        }
+    }
+
+    @Test
+    void exportPostsWithInvalidPeriod() throws Exception {
+        restPostMockMvc
+            .perform(get(ENTITY_EXPORT_API_URL + "?from=2021-01-01T00:00:00Z&to=2020-01-01T00:00:00Z"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllPostSummaries() throws Exception {
+        // Initialize the database with a post longer than an excerpt
+        Tag tag = TagResourceIT.createEntity();
+        em.persist(tag);
+        String longContent = "B".repeat(PostSummary.EXCERPT_LENGTH * 2);
+        insertedPost = postRepository.saveAndFlush(post.content(longContent).addTags(tag));
+        em.clear();
+
+        // Get all the post summaries
+        restPostMockMvc
+            .perform(get(ENTITY_SUMMARY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.[0].id").value(post.getId().intValue()))
+            .andExpect(jsonPath("$.[0].title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.[0].date").value(DEFAULT_DATE.toString()))
+            .andExpect(jsonPath("$.[0].excerpt").value(longContent.substring(0, PostSummary.EXCERPT_LENGTH)))
+            .andExpect(jsonPath("$.[0].content").doesNotExist())
+            .andExpect(jsonPath("$.[0].tags.[*].name").value(hasItem(tag.getName())));
+    }
+
+    @Test
+    @Transactional
+    void scrollPosts() throws Exception {
+        // Initialize the database with posts newer than any other one, two of them sharing the same date
+        Instant newest = Instant.parse("3000-01-01T00:00:00Z");
+        Post first = postRepository.saveAndFlush(createEntity().date(newest));
+        Post second = postRepository.saveAndFlush(createEntity().date(newest.minusSeconds(1)));
+        Post third = postRepository.saveAndFlush(createEntity().date(newest.minusSeconds(1)));
+
+        // Get the first slice
+        MvcResult result = restPostMockMvc
+            .perform(get(ENTITY_SCROLL_API_URL + "?size=2"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(first.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(third.getId().intValue()))
+            .andReturn();
+
+        // Follow the link to the next slice
+        String link = result.getResponse().getHeader(HttpHeaders.LINK);
+        String next = link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        restPostMockMvc
+            .perform(get(next))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(second.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void scrollPostsWithInvalidCursor() throws Exception {
+        restPostMockMvc.perform(get(ENTITY_SCROLL_API_URL + "?after=invalid")).andExpect(status().isBadRequest());
+    }
+
     @SuppressWarnings({ "unchecked" })
     void getAllPostsWithEagerRelationshipsIsEnabled() throws Exception {
         when(postRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
@@ -261,6 +522,71 @@ class PostResourceIT {
             .andExpect(jsonPath("$.date").value(DEFAULT_DATE.toString()));
     }
 
+    @Test
+    @Transactional
+    void getPostNotModified() throws Exception {
+        // Initialize the database
+        Tag tag = TagResourceIT.createEntity();
+        em.persist(tag);
+        insertedPost = postRepository.saveAndFlush(post.addTags(tag));
+
+        // Get the post, then get it again with its ETag
+        String eTag = restPostMockMvc
+            .perform(get(ENTITY_API_URL_ID, post.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL_ID, post.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // Renaming a tag of the post changes its representation
+        tag.setName("renamed");
+        em.flush();
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL_ID, post.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.tags.[*].name").value(hasItem("renamed")));
+    }
+
+    @Test
+    @Transactional
+    void putPostWithIfMatch() throws Exception {
+        // Initialize the database
+        insertedPost = postRepository.saveAndFlush(post);
+        String eTag = restPostMockMvc.perform(get(ENTITY_API_URL_ID, post.getId())).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Post updatedPost = postRepository.findById(post.getId()).orElseThrow();
+        em.detach(updatedPost);
+        updatedPost.title(UPDATED_TITLE).version(null);
+
+        String newETag = restPostMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedPost.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(updatedPost))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(newETag).isNotEqualTo(eTag);
+
+        // The first ETag is now stale
+        restPostMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedPost.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(updatedPost))
+            )
+            .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @Transactional
     void getNonExistingPost() throws Exception {
@@ -268,6 +594,92 @@ class PostResourceIT {
         restPostMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getPostContent() throws Exception {
+        // Initialize the database
+        insertedPost = postRepository.saveAndFlush(post);
+
+        // Get the content of the post
+        restPostMockMvc
+            .perform(get(ENTITY_CONTENT_API_URL, post.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andExpect(content().string(DEFAULT_CONTENT));
+    }
+
+    @Test
+    @Transactional
+    void getPostContentWithGzip() throws Exception {
+        // Initialize the database
+        insertedPost = postRepository.saveAndFlush(post);
+
+        // Get the compressed content of the post
+        byte[] body = restPostMockMvc
+            .perform(get(ENTITY_CONTENT_API_URL, post.getId()).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(DEFAULT_CONTENT);
+        }
+    }
+
+    @Test
+    @Transactional
+    void getPostContentRange() throws Exception {
+        // Initialize the database
+        insertedPost = postRepository.saveAndFlush(post.content("0123456789"));
+
+        // Get a range of the content of the post
+        restPostMockMvc
+            .perform(get(ENTITY_CONTENT_API_URL, post.getId()).header(HttpHeaders.RANGE, "bytes=2-5"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/*"))
+            .andExpect(content().string("2345"));
+        restPostMockMvc
+            .perform(get(ENTITY_CONTENT_API_URL, post.getId()).header(HttpHeaders.RANGE, "bytes=7-"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+            .andExpect(content().string("789"));
+        restPostMockMvc
+            .perform(get(ENTITY_CONTENT_API_URL, post.getId()).header(HttpHeaders.RANGE, "bytes=10-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingPostContent() throws Exception {
+        restPostMockMvc.perform(get(ENTITY_CONTENT_API_URL, Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void putPostContent() throws Exception {
+        // Initialize the database
+        insertedPost = postRepository.saveAndFlush(post);
+
+        restPostMockMvc
+            .perform(put(ENTITY_CONTENT_API_URL, post.getId()).contentType(MediaType.TEXT_PLAIN).content(UPDATED_CONTENT))
+            .andExpect(status().isNoContent());
+
+        // Validate the Post in the database
+        em.clear();
+        assertThat(postRepository.findById(post.getId())).get().extracting(Post::getContent).isEqualTo(UPDATED_CONTENT);
+    }
+
+    @Test
+    @Transactional
+    void putNonExistingPostContent() throws Exception {
+        restPostMockMvc
+            .perform(put(ENTITY_CONTENT_API_URL, Long.MAX_VALUE).contentType(MediaType.TEXT_PLAIN).content(UPDATED_CONTENT))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void putExistingPost() throws Exception {
@@ -521,6 +933,80 @@ class PostResourceIT {
             .andExpect(jsonPath("$.[*].date").value(hasItem(DEFAULT_DATE.toString())));
     }
 
+    @Test
+    @Transactional
+    void searchHighlightedPost() throws Exception {
+        // Initialize the database
+        insertedPost = postRepository.saveAndFlush(post);
+        postSearchRepository.save(post);
+
+        // Search the post, without its content
+        restPostMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "/highlighted?query=" + DEFAULT_TITLE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].post.id").value(hasItem(post.getId().intValue())))
+            .andExpect(jsonPath("$.[0].post.content").doesNotExist())
+            .andExpect(jsonPath("$.[0].highlights.title").value(hasItem("<em>" + DEFAULT_TITLE + "</em>")));
+    }
+
+    @Test
+    @Transactional
+    void findPostsWithFilters() throws Exception {
+        // Initialize the database
+        Tag tag = TagResourceIT.createEntity();
+        em.persist(tag);
+        Mode mode = ModeResourceIT.createEntity();
+        em.persist(mode);
+        insertedPost = postRepository.saveAndFlush(post.date(Instant.now()).mode(mode).addTags(tag));
+        Post otherPost = postRepository.saveAndFlush(createEntity().date(Instant.now()).addTags(tag));
+        Post oldPost = postRepository.saveAndFlush(createEntity().date(Instant.parse("2020-01-01T00:00:00Z")).mode(mode).addTags(tag));
+        postSearchRepository.saveAll(List.of(post, otherPost, oldPost));
+
+        // Find the posts with the tag in the mode of the last week
+        restPostMockMvc
+            .perform(get(ENTITY_FIND_API_URL + "?tag=" + tag.getName() + "&mode=" + mode.getName() + "&from=now-7d/d"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(contains(post.getId().intValue())));
+
+        // Find the posts with a title term, whatever their date
+        restPostMockMvc
+            .perform(get(ENTITY_FIND_API_URL + "?title=" + DEFAULT_TITLE + "&mode=" + mode.getName()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(containsInAnyOrder(post.getId().intValue(), oldPost.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void findFacetedPosts() throws Exception {
+        // Initialize the database
+        Tag tag = TagResourceIT.createEntity();
+        em.persist(tag);
+        Mode mode = ModeResourceIT.createEntity();
+        em.persist(mode);
+        insertedPost = postRepository.saveAndFlush(post.date(Instant.parse("2021-01-15T00:00:00Z")).mode(mode).addTags(tag));
+        Post otherPost = postRepository.saveAndFlush(createEntity().date(Instant.parse("2021-02-15T00:00:00Z")).addTags(tag));
+        postSearchRepository.saveAll(List.of(post, otherPost));
+
+        // Find the posts with the tag, and count them by tag, mode and month
+        restPostMockMvc
+            .perform(get(ENTITY_FIND_API_URL + "/faceted?size=1&tag=" + tag.getName()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.posts.[*].id").value(contains(otherPost.getId().intValue())))
+            .andExpect(jsonPath("$.facets.tags." + tag.getName()).value(2))
+            .andExpect(jsonPath("$.facets.modes." + mode.getName()).value(1))
+            .andExpect(jsonPath("$.facets.months['2021-01']").value(1))
+            .andExpect(jsonPath("$.facets.months['2021-02']").value(1));
+    }
+
+    @Test
+    @Transactional
+    void findPostsWithInvalidDate() throws Exception {
+        restPostMockMvc.perform(get(ENTITY_FIND_API_URL + "?from=last-week")).andExpect(status().isBadRequest());
+    }
+
     protected long getRepositoryCount() {
         return postRepository.count();
     }
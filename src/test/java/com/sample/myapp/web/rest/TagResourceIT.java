@@ -26,6 +26,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.util.Streamable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -202,6 +203,67 @@ class TagResourceIT {
             .andExpect(jsonPath("$.name").value(DEFAULT_NAME));
     }
 
+    @Test
+    @Transactional
+    void getTagNotModified() throws Exception {
+        // Initialize the database
+        insertedTag = tagRepository.saveAndFlush(tag);
+
+        // Get the tag, then get it again with its ETag
+        String eTag = restTagMockMvc
+            .perform(get(ENTITY_API_URL_ID, tag.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        restTagMockMvc
+            .perform(get(ENTITY_API_URL_ID, tag.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    void putTagWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        insertedTag = tagRepository.saveAndFlush(tag);
+        String staleETag = "\"" + (tag.getVersion() + 1) + "\"";
+
+        Tag updatedTag = tagRepository.findById(tag.getId()).orElseThrow();
+        em.detach(updatedTag);
+        updatedTag.name(UPDATED_NAME);
+
+        restTagMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedTag.getId())
+                    .header(HttpHeaders.IF_MATCH, staleETag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(updatedTag))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        // Validate the Tag in the database
+        assertThat(tagRepository.findById(tag.getId())).get().extracting(Tag::getName).isEqualTo(DEFAULT_NAME);
+    }
+
+    @Test
+    @Transactional
+    void putTagWithStaleVersion() throws Exception {
+        // Initialize the database
+        insertedTag = tagRepository.saveAndFlush(tag);
+
+        Tag updatedTag = tagRepository.findById(tag.getId()).orElseThrow();
+        em.detach(updatedTag);
+        updatedTag.name(UPDATED_NAME).version(tag.getVersion() - 1);
+
+        restTagMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedTag.getId()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(updatedTag))
+            )
+            .andExpect(status().isConflict());
+    }
+
     @Test
     @Transactional
     void getNonExistingTag() throws Exception {
@@ -456,6 +518,28 @@ class TagResourceIT {
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)));
     }
 
+    @Test
+    @Transactional
+    void scrollSearchTag() throws Exception {
+        // Initialize the database
+        insertedTag = tagRepository.saveAndFlush(tag);
+        tagSearchRepository.save(tag);
+
+        // Search the tag, one slice at a time
+        restTagMockMvc
+            .perform(get(ENTITY_SEARCH_API_URL + "?scroll=true&size=1&query=id:" + tag.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(tag.getId().intValue())))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    void scrollSearchTagWithInvalidCursor() throws Exception {
+        restTagMockMvc.perform(get(ENTITY_SEARCH_API_URL + "?query=*&after=invalid")).andExpect(status().isBadRequest());
+    }
+
     protected long getRepositoryCount() {
         return tagRepository.count();
     }
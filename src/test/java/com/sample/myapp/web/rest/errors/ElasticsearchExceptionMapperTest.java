@@ -5,7 +5,9 @@ import static org.junit.jupiter.api.Assertions.*;
 import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.ErrorCause;
 import co.elastic.clients.elasticsearch._types.ErrorResponse;
+import org.apache.lucene.queryparser.classic.ParseException;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
 
 class ElasticsearchExceptionMapperTest {
@@ -24,4 +26,24 @@ class ElasticsearchExceptionMapperTest {
             ElasticsearchExceptionMapper.mapException(new UncategorizedElasticsearchException("", cause))
         );
     }
+
+    @Test
+    void testMapExpiredPointInTimeException() {
+        ErrorResponse response = new ErrorResponse.Builder()
+            .error(new ErrorCause.Builder().type("search_context_missing_exception").reason("No search context found").build())
+            .status(404)
+            .build();
+        ElasticsearchException esException = new ElasticsearchException("", response);
+        UncategorizedElasticsearchException cause = new UncategorizedElasticsearchException("", esException);
+        assertInstanceOf(
+            SearchCursorExpiredException.class,
+            ElasticsearchExceptionMapper.mapException(new UncategorizedElasticsearchException("", cause))
+        );
+    }
+
+    @Test
+    void testMapLuceneParseException() {
+        InvalidDataAccessApiUsageException exception = new InvalidDataAccessApiUsageException("", new ParseException(""));
+        assertInstanceOf(QuerySyntaxException.class, ElasticsearchExceptionMapper.mapException(exception));
+    }
 }
@@ -0,0 +1,56 @@
+package com.sample.myapp.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class ByteRangeUtilTest {
+
+    @Test
+    void parseRange() {
+        assertThat(ByteRangeUtil.parseRange("bytes=10-19")).isEqualTo(new ByteRangeUtil.ByteRange(10, 19));
+        assertThat(ByteRangeUtil.parseRange("bytes=10-")).isEqualTo(new ByteRangeUtil.ByteRange(10, Long.MAX_VALUE));
+        assertThat(ByteRangeUtil.parseRange("bytes=10-19").length()).isEqualTo(10);
+    }
+
+    @Test
+    void parseUnsupportedRange() {
+        assertThat(ByteRangeUtil.parseRange(null)).isNull();
+        assertThat(ByteRangeUtil.parseRange("bytes=-10")).isNull();
+        assertThat(ByteRangeUtil.parseRange("bytes=0-1,5-6")).isNull();
+        assertThat(ByteRangeUtil.parseRange("bytes=19-10")).isNull();
+        assertThat(ByteRangeUtil.parseRange("lines=1-2")).isNull();
+    }
+
+    @Test
+    void contentRange() {
+        assertThat(ByteRangeUtil.contentRange(10, 19, 100)).isEqualTo("bytes 10-19/100");
+        assertThat(ByteRangeUtil.contentRange(10, 19, -1)).isEqualTo("bytes 10-19/*");
+        assertThat(ByteRangeUtil.unsatisfiedContentRange(100)).isEqualTo("bytes */100");
+    }
+
+    @Test
+    void rangeBufferKeepsOnlyTheRange() {
+        ByteRangeUtil.RangeBuffer buffer = new ByteRangeUtil.RangeBuffer(new ByteRangeUtil.ByteRange(3, 7), 1024);
+
+        buffer.write("0123".getBytes(StandardCharsets.US_ASCII), 0, 4);
+        assertThat(buffer.isFull()).isFalse();
+        buffer.write('4');
+        buffer.write("56789".getBytes(StandardCharsets.US_ASCII), 0, 5);
+
+        assertThat(buffer.isFull()).isTrue();
+        assertThat(buffer.getPosition()).isEqualTo(10);
+        assertThat(new String(buffer.toByteArray(), StandardCharsets.US_ASCII)).isEqualTo("34567");
+    }
+
+    @Test
+    void rangeBufferTruncatesLongRanges() {
+        ByteRangeUtil.RangeBuffer buffer = new ByteRangeUtil.RangeBuffer(new ByteRangeUtil.ByteRange(2, Long.MAX_VALUE), 3);
+
+        buffer.write("0123456789".getBytes(StandardCharsets.US_ASCII), 0, 10);
+
+        assertThat(buffer.isFull()).isTrue();
+        assertThat(new String(buffer.toByteArray(), StandardCharsets.US_ASCII)).isEqualTo("234");
+    }
+}
@@ -0,0 +1,53 @@
+package com.sample.myapp.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sample.myapp.web.rest.errors.BadRequestAlertException;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+class CursorPaginationUtilTest {
+
+    @Test
+    void cursorRoundTrip() {
+        Instant date = Instant.parse("2025-06-04T11:54:03.123Z");
+
+        String cursor = CursorPaginationUtil.encodeCursor(date, 1051L);
+
+        assertThat(cursor).doesNotContain("2025").doesNotContain("=");
+        assertThat(CursorPaginationUtil.decodeCursor(cursor, 2, "post")).containsExactly(date.toString(), "1051");
+    }
+
+    @Test
+    void decodeCursorRejectsMalformedCursor() {
+        assertThatThrownBy(() -> CursorPaginationUtil.decodeCursor("not base64!", 2, "post")).isInstanceOf(BadRequestAlertException.class);
+        String oneValue = CursorPaginationUtil.encodeCursor("1051");
+        assertThatThrownBy(() -> CursorPaginationUtil.decodeCursor(oneValue, 2, "post"))
+            .isInstanceOf(BadRequestAlertException.class)
+            .extracting(e -> ((BadRequestAlertException) e).getErrorKey())
+            .isEqualTo("cursorinvalid");
+    }
+
+    @Test
+    void generateCursorHttpHeadersWithNextCursor() {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString("/api/posts/_scroll?after=old&size=20");
+
+        HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(uriBuilder, "next");
+
+        List<String> links = headers.get(HttpHeaders.LINK);
+        assertThat(links).containsExactly("</api/posts/_scroll?size=20&after=next>; rel=\"next\"");
+    }
+
+    @Test
+    void generateCursorHttpHeadersOnLastSlice() {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString("/api/posts/_scroll?size=20");
+
+        HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(uriBuilder, null);
+
+        assertThat(headers.containsKey(HttpHeaders.LINK)).isFalse();
+    }
+}
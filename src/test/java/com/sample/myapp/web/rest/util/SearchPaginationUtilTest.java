@@ -0,0 +1,67 @@
+package com.sample.myapp.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sample.myapp.repository.search.SearchSlice;
+import com.sample.myapp.web.rest.errors.BadRequestAlertException;
+import com.sample.myapp.web.rest.util.SearchPaginationUtil.SearchCursor;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+class SearchPaginationUtilTest {
+
+    @Test
+    void boundedPageableCapsThePageSize() {
+        Pageable pageable = SearchPaginationUtil.boundedPageable(PageRequest.of(2, 1000, Sort.by("id")), "mode");
+
+        assertThat(pageable).isEqualTo(PageRequest.of(2, SearchPaginationUtil.MAX_PAGE_SIZE, Sort.by("id")));
+        assertThat(SearchPaginationUtil.boundedPageable(PageRequest.of(2, 20), "mode")).isEqualTo(PageRequest.of(2, 20));
+    }
+
+    @Test
+    void boundedPageableRejectsPagesPastTheResultWindow() {
+        assertThat(SearchPaginationUtil.boundedPageable(PageRequest.of(99, 100), "mode").getOffset()).isEqualTo(9900);
+        assertThatThrownBy(() -> SearchPaginationUtil.boundedPageable(PageRequest.of(100, 100), "mode"))
+            .isInstanceOf(BadRequestAlertException.class)
+            .extracting(e -> ((BadRequestAlertException) e).getErrorKey())
+            .isEqualTo("pagetoodeep");
+    }
+
+    @Test
+    void searchCursorRoundTrip() {
+        SearchSlice<String> slice = new SearchSlice<>(List.of("mode"), "pit==", List.of("1.5", "42"));
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString("/api/modes/_search?query=*&scroll=true&page=3");
+
+        HttpHeaders headers = SearchPaginationUtil.generateSearchCursorHttpHeaders(uriBuilder, slice, 20);
+
+        String link = headers.getFirst(HttpHeaders.LINK);
+        assertThat(link).startsWith("</api/modes/_search?query=*&scroll=true&size=20&after=").doesNotContain("page=");
+        String cursor = link.substring(link.indexOf("after=") + "after=".length(), link.indexOf('>'));
+        assertThat(SearchPaginationUtil.decodeSearchCursor(cursor, "mode")).isEqualTo(new SearchCursor("pit==", List.of("1.5", "42")));
+    }
+
+    @Test
+    void decodeSearchCursorRejectsNonNumericSortValues() {
+        String cursor = CursorPaginationUtil.encodeCursor("pit", "high", "42");
+
+        assertThatThrownBy(() -> SearchPaginationUtil.decodeSearchCursor(cursor, "mode"))
+            .isInstanceOf(BadRequestAlertException.class)
+            .extracting(e -> ((BadRequestAlertException) e).getErrorKey())
+            .isEqualTo("cursorinvalid");
+    }
+
+    @Test
+    void generateSearchCursorHttpHeadersOnLastSlice() {
+        SearchSlice<String> slice = new SearchSlice<>(List.of("mode"), "pit", null);
+
+        HttpHeaders headers = SearchPaginationUtil.generateSearchCursorHttpHeaders(UriComponentsBuilder.fromUriString("/api/modes/_search"), slice, 20);
+
+        assertThat(headers.containsKey(HttpHeaders.LINK)).isFalse();
+    }
+}